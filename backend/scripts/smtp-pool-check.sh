@@ -0,0 +1,70 @@
+#!/usr/bin/env bash
+# Repeatable check of the pooled SMTP sender against a local Mailpit stand-in.
+#
+#   scripts/smtp-pool-check.sh up            start Mailpit (SMTP on 1025, API on 8025)
+#   SPRING_PROFILES_ACTIVE=smtpdev mvn spring-boot:run    (with the usual database settings)
+#   scripts/smtp-pool-check.sh run [count]   queue count good and 2 rejected mails, wait for delivery
+#   scripts/smtp-pool-check.sh down          stop Mailpit
+#
+# Mailpit only accepts recipients under @pool-check.test, so the @rejected.test mails fail at RCPT
+# inside a batch and exercise the re-validation after a failed send. Set ADMIN_TOKEN to a SUPER_ADMIN
+# JWT to also check the pool counters at /admin/mail/pool.
+set -euo pipefail
+
+API_URL="${API_URL:-http://localhost:8080}"
+MAILPIT_URL="${MAILPIT_URL:-http://localhost:8025}"
+CONTAINER=smtp-pool-check-mailpit
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+
+mailpit_total() {
+    curl -fsS "$MAILPIT_URL/api/v1/messages?limit=1" | sed -n 's/.*"total":\([0-9]*\).*/\1/p'
+}
+
+send_mail() {
+    curl -fsS -o /dev/null -X POST "$API_URL/email/send" -H 'Content-Type: application/json' \
+        -d "{\"to\":\"$1\",\"subject\":\"pool check\",\"body\":\"pool check message\"}"
+}
+
+case "${1:-}" in
+    up)
+        docker run -d --rm --name "$CONTAINER" -p 1025:1025 -p 8025:8025 \
+            -e MP_SMTP_ALLOWED_RECIPIENTS='@pool-check\.test$' axllent/mailpit:v1.21
+        ;;
+    down)
+        docker stop "$CONTAINER"
+        ;;
+    run)
+        count="${2:-20}"
+        curl -fsS -o /dev/null -X DELETE "$MAILPIT_URL/api/v1/messages"
+        for i in $(seq 1 "$count"); do
+            send_mail "user$i@pool-check.test"
+            if [ "$i" -eq 2 ] || [ "$i" -eq $((count / 2)) ]; then
+                send_mail "nobody$i@rejected.test"
+            fi
+        done
+
+        deadline=$((SECONDS + TIMEOUT_SECONDS))
+        total=0
+        while [ "$SECONDS" -lt "$deadline" ]; do
+            total="$(mailpit_total)"
+            [ "$total" -ge "$count" ] && break
+            sleep 2
+        done
+        echo "Mailpit received $total of $count messages"
+        [ "$total" -eq "$count" ] || { echo "FAIL: not every good message was delivered" >&2; exit 1; }
+
+        if [ -n "${ADMIN_TOKEN:-}" ]; then
+            metrics="$(curl -fsS -H "Authorization: Bearer $ADMIN_TOKEN" "$API_URL/admin/mail/pool")"
+            echo "$metrics"
+            created="$(echo "$metrics" | sed -n 's/.*"created":\([0-9]*\).*/\1/p')"
+            failures="$(echo "$metrics" | sed -n 's/.*"sendFailures":\([0-9]*\).*/\1/p')"
+            [ "$created" -lt "$count" ] || { echo "FAIL: connections were not reused" >&2; exit 1; }
+            [ "$failures" -ge 2 ] || { echo "FAIL: the rejected recipients were not attempted" >&2; exit 1; }
+        fi
+        echo "OK"
+        ;;
+    *)
+        echo "usage: $0 up | run [count] | down" >&2
+        exit 2
+        ;;
+esac
@@ -0,0 +1,75 @@
+package com.infantjesus.security;
+
+import com.infantjesus.config.JwtKeyProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens signed and verified per second with every benchmark thread sharing one JwtUtil, as request
+ * threads do. Run with: mvn -Pjmh test-compile exec:exec (pass JMH options through -Djmh.args,
+ * e.g. -Djmh.args="-t 1" for the uncontended figure).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    
+    private JwtUtil jwtUtil;
+    private JwtParser parser;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        JwtKeyProperties keys = new JwtKeyProperties();
+        keys.setSecret("benchmark-secret-benchmark-secret-benchmark-secret");
+        keys.setKid("primary");
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "keyProperties", keys);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 10_000L);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        parser = (JwtParser) ReflectionTestUtils.getField(jwtUtil, "parser");
+        token = jwtUtil.generateToken("superadmin", "ROLE_SUPER_ADMIN");
+    }
+    
+    /**
+     * Issuing a token, as /admin/login does
+     */
+    @Benchmark
+    public String sign() {
+        return jwtUtil.generateToken("superadmin", "ROLE_SUPER_ADMIN");
+    }
+    
+    /**
+     * Full signature check with the shared parser, i.e. a token's first request
+     */
+    @Benchmark
+    public Claims verify() {
+        return parser.parseClaimsJws(token).getBody();
+    }
+    
+    /**
+     * A token's later requests, answered from the verified-claims cache
+     */
+    @Benchmark
+    public Claims verifyCached() {
+        return jwtUtil.extractAllClaims(token);
+    }
+}
@@ -1,35 +1,135 @@
 package com.infantjesus.config;
 
+import com.infantjesus.logging.MdcTaskDecorator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
+/**
+ * Executors for background work. With spring.threads.virtual.enabled=true on Java 21 the general
+ * and upload executors start a virtual thread per task instead of using a fixed pool; the mail and
+ * live-update executors always stay on platform threads (JavaMail's SMTP transport blocks inside
+ * synchronized methods, which would pin a virtual thread's carrier).
+ */
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.threads.virtual.task-concurrency-limit:200}")
+    private int virtualTaskConcurrencyLimit;
+
+    @Value("${app.threads.virtual.task-queue-capacity:100}")
+    private int virtualTaskQueueCapacity;
+
+    @Value("${app.threads.virtual.upload-concurrency-limit:8}")
+    private int virtualUploadConcurrencyLimit;
+
+    @Value("${app.threads.virtual.upload-queue-capacity:50}")
+    private int virtualUploadQueueCapacity;
+
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return virtualThreadExecutor("AsyncThread-", virtualTaskConcurrencyLimit, virtualTaskQueueCapacity);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(10);
         executor.setMaxPoolSize(50);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("AsyncThread-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
         executor.initialize();
         return executor;
     }
 
     @Bean(name = "fileUploadExecutor")
     public Executor fileUploadExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Image derivatives are CPU-bound, so this limit matters even though threads are cheap
+            return virtualThreadExecutor("FileUpload-", virtualUploadConcurrencyLimit, virtualUploadQueueCapacity);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(20);
         executor.setQueueCapacity(50);
         executor.setThreadNamePrefix("FileUpload-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
         executor.initialize();
         return executor;
     }
+
+    @Bean(name = "mailExecutor")
+    public Executor mailExecutor() {
+        // One long-running drain loop per worker; sized to app.mail.queue.workers
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("MailWorker-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "liveUpdateExecutor")
+    public Executor liveUpdateExecutor() {
+        // Drains per-client SSE buffers; a few threads serve thousands of mostly idle streams
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("LiveUpdate-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * A virtual thread per task, with at most concurrencyLimit running and queueCapacity more waiting,
+     * like the platform pools' core/queue bounds. Beyond that execute() throws RejectedExecutionException
+     * on the caller's thread, which callers such as UploadStorageService.finalizeAsync rely on for
+     * back-pressure. Waiting tasks park on a semaphore inside their own virtual thread;
+     * SimpleAsyncTaskExecutor's own concurrency limit is not used because it waits on a monitor, which
+     * pins the carrier.
+     */
+    private static Executor virtualThreadExecutor(String threadNamePrefix, int concurrencyLimit, int queueCapacity) {
+        SimpleAsyncTaskExecutor threads = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        threads.setVirtualThreads(true);
+        threads.setTaskDecorator(new MdcTaskDecorator());
+        Semaphore admitted = new Semaphore(concurrencyLimit + queueCapacity);
+        Semaphore running = new Semaphore(concurrencyLimit);
+        return task -> {
+            if (!admitted.tryAcquire()) {
+                throw new RejectedExecutionException(threadNamePrefix + " executor is saturated ("
+                        + concurrencyLimit + " running, " + queueCapacity + " waiting)");
+            }
+            try {
+                threads.execute(() -> {
+                    running.acquireUninterruptibly();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                        admitted.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                admitted.release();
+                throw e;
+            }
+        };
+    }
 }
@@ -0,0 +1,39 @@
+package com.infantjesus.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Creates the partial unique index that allows at most one RUNNING broadcast per announcement, so two
+ * concurrent starts cannot both mail every user. Hibernate's ddl-auto cannot express partial indexes.
+ */
+@Configuration
+public class BroadcastIndexConfig {
+
+    public static final String RUNNING_INDEX = "uq_announcement_broadcasts_running";
+
+    private static final Logger logger = LoggerFactory.getLogger(BroadcastIndexConfig.class);
+
+    @Bean
+    public ApplicationRunner broadcastIndexInitializer(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            try {
+                // Duplicates left from before the index existed would make its creation fail; keep the oldest
+                int cancelled = jdbcTemplate.update("UPDATE announcement_broadcasts SET status = 'CANCELLED' " +
+                        "WHERE status = 'RUNNING' AND id NOT IN (SELECT MIN(id) FROM announcement_broadcasts " +
+                        "WHERE status = 'RUNNING' GROUP BY announcement_id)");
+                if (cancelled > 0) {
+                    logger.warn("Cancelled {} duplicate running broadcast(s)", cancelled);
+                }
+                jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + RUNNING_INDEX +
+                        " ON announcement_broadcasts (announcement_id) WHERE status = 'RUNNING'");
+            } catch (Exception e) {
+                logger.warn("Could not create index {}: {}", RUNNING_INDEX, e.getMessage());
+            }
+        };
+    }
+}
@@ -1,17 +1,86 @@
 package com.infantjesus.config;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.infantjesus.jfr.RecordingCaffeineCache;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheSpecProperties.class)
 public class CacheConfig {
 
+    private static final List<String> CACHE_NAMES = List.of(
+            "events", "classes", "facilities", "announcements", "users",
+            "announcementSearch", "facilitySearch", "eventSearch");
+
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("events", "classes", "facilities", "users");
+    public CacheManager cacheManager(CacheSpecProperties properties, Environment environment) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            // Every lookup becomes a JFR event while a recording is running
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new RecordingCaffeineCache(name, cache, isAllowNullValues());
+            }
+
+            @Override
+            protected Cache adaptCaffeineCache(String name, AsyncCache<Object, Object> cache) {
+                return new RecordingCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        // Only the caches declared here exist; an unknown name is a bug, not a new unbounded cache
+        cacheManager.setCacheNames(Collections.emptyList());
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        VirtualThreadTaskExecutor loaderThreads = virtualThreads ? new VirtualThreadTaskExecutor("CacheLoad-") : null;
+        for (String name : CACHE_NAMES) {
+            CacheSpecProperties.Spec spec = properties.getSpecs().getOrDefault(name, properties.getDefault());
+            if (virtualThreads) {
+                // A synchronous cache runs sync=true loaders inside ConcurrentHashMap.compute, i.e. under a
+                // monitor, and a JDBC query there would pin the calling virtual thread. The async cache only
+                // installs a future under that lock; the loader runs on its own virtual thread.
+                cacheManager.registerCustomCache(name, buildCache(spec).executor(loaderThreads).buildAsync());
+            } else {
+                cacheManager.registerCustomCache(name, buildCache(spec).build());
+            }
+        }
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> buildCache(CacheSpecProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(spec.getMaximumWeight())
+                .weigher((Object key, Object value) -> weigh(value))
+                .recordStats();
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        return builder;
+    }
+
+    private static int weigh(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Math.max(1, map.size());
+        }
+        return 1;
     }
 }
@@ -0,0 +1,71 @@
+package com.infantjesus.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache limits bound from app.cache.* in application.properties.
+ * Caches without an entry under app.cache.specs use app.cache.default.
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheSpecProperties {
+
+    private Spec defaultSpec = new Spec();
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    public Spec getDefault() {
+        return defaultSpec;
+    }
+
+    public void setDefault(Spec defaultSpec) {
+        this.defaultSpec = defaultSpec;
+    }
+
+    public Map<String, Spec> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(Map<String, Spec> specs) {
+        this.specs = specs;
+    }
+
+    public static class Spec {
+
+        /**
+         * Maximum total weight; a cached list weighs its element count, anything else weighs 1
+         */
+        private long maximumWeight = 1000;
+
+        private Duration expireAfterWrite;
+
+        private Duration expireAfterAccess;
+
+        public long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+    }
+}
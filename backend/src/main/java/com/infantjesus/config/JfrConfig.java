@@ -0,0 +1,32 @@
+package com.infantjesus.config;
+
+import com.infantjesus.jfr.RepositoryEventInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Adds {@link RepositoryEventInterceptor} to every Spring Data repository so repository calls show up
+ * as JFR events. The events cost a flag check per call when no recording is running.
+ */
+@Configuration
+public class JfrConfig {
+    
+    // Static, and before initialization: the factory bean builds its repository proxy in afterPropertiesSet
+    @Bean
+    public static BeanPostProcessor jfrRepositoryPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            // Outermost, so the event also covers the transaction's commit and flush
+                            (proxyFactory, repository) -> proxyFactory.addAdvice(0, new RepositoryEventInterceptor(
+                                    repository.getRepositoryInterface(), repository.getDomainType()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.infantjesus.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JWT signing keys bound from jwt.* in application.properties.
+ * New tokens are signed with jwt.secret under jwt.kid; tokens carrying a kid from
+ * jwt.retired-secrets are still accepted until they expire.
+ */
+@ConfigurationProperties(prefix = "jwt")
+public class JwtKeyProperties {
+
+    private String secret;
+
+    private String kid = "primary";
+
+    private Map<String, String> retiredSecrets = new LinkedHashMap<>();
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public Map<String, String> getRetiredSecrets() {
+        return retiredSecrets;
+    }
+
+    public void setRetiredSecrets(Map<String, String> retiredSecrets) {
+        this.retiredSecrets = retiredSecrets;
+    }
+}
@@ -0,0 +1,68 @@
+package com.infantjesus.config;
+
+import com.infantjesus.service.PooledJavaMailSender;
+import com.infantjesus.service.SmtpTransportPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Replaces Spring Boot's JavaMailSender with one that reuses pooled SMTP connections.
+ * Configured from the usual spring.mail.* properties, so pointing spring.mail.host/port at a local
+ * SMTP stand-in exercises the same code path.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.mail.pool.enabled", havingValue = "true")
+@EnableConfigurationProperties(MailProperties.class)
+public class MailPoolConfig {
+
+    private SmtpTransportPool pool;
+
+    @Bean
+    public PooledJavaMailSender mailSender(
+            MailProperties mailProperties,
+            @Value("${app.mail.pool.max-size:2}") int maxSize,
+            @Value("${app.mail.pool.max-messages-per-connection:100}") int maxMessages,
+            @Value("${app.mail.pool.idle-timeout:60s}") Duration idleTimeout,
+            @Value("${app.mail.pool.validate-after-idle:10s}") Duration validateAfterIdle,
+            @Value("${app.mail.pool.borrow-timeout:30s}") Duration borrowTimeout) {
+        PooledJavaMailSender sender = new PooledJavaMailSender();
+        sender.setHost(mailProperties.getHost());
+        if (mailProperties.getPort() != null) {
+            sender.setPort(mailProperties.getPort());
+        }
+        sender.setUsername(mailProperties.getUsername());
+        sender.setPassword(mailProperties.getPassword());
+        sender.setProtocol(mailProperties.getProtocol());
+        if (mailProperties.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(mailProperties.getDefaultEncoding().name());
+        }
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.putAll(mailProperties.getProperties());
+        sender.setJavaMailProperties(javaMailProperties);
+
+        pool = new SmtpTransportPool(sender.getSession(), sender.getProtocol(), sender.getHost(), sender.getPort(),
+                sender.getUsername(), sender.getPassword(), maxSize, maxMessages, idleTimeout, validateAfterIdle, borrowTimeout);
+        sender.setPool(pool);
+        return sender;
+    }
+
+    @Bean
+    public SmtpTransportPool smtpTransportPool(PooledJavaMailSender mailSender) {
+        return mailSender.getPool();
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.pool.eviction-interval:15s}")
+    public void evictIdleConnections() {
+        if (pool != null) {
+            pool.evictIdle();
+        }
+    }
+}
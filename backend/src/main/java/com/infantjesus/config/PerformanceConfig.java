@@ -17,6 +17,6 @@ public class PerformanceConfig implements WebMvcConfigurer {
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(performanceInterceptor())
-                .addPathPatterns("/admin/**", "/events/**", "/facilities/**", "/classes/**");
+                .addPathPatterns("/**");
     }
 }
@@ -0,0 +1,40 @@
+package com.infantjesus.config;
+
+import com.infantjesus.repository.AnnouncementRepository;
+import com.infantjesus.repository.EventRepository;
+import com.infantjesus.repository.FacilityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Creates the GIN expression indexes behind the repository full-text searches.
+ * Hibernate's ddl-auto cannot express these, so they are created here once the schema exists.
+ */
+@Configuration
+public class SearchIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexConfig.class);
+
+    @Bean
+    public ApplicationRunner searchIndexInitializer(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            createIndex(jdbcTemplate, "idx_announcements_search", "announcements", AnnouncementRepository.SEARCH_VECTOR);
+            createIndex(jdbcTemplate, "idx_events_search", "events", EventRepository.SEARCH_VECTOR);
+            createIndex(jdbcTemplate, "idx_facilities_search", "facilities", FacilityRepository.SEARCH_VECTOR);
+        };
+    }
+
+    private void createIndex(JdbcTemplate jdbcTemplate, String indexName, String table, String expression) {
+        try {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + indexName + " ON " + table +
+                    " USING GIN (" + expression + ")");
+        } catch (Exception e) {
+            // Search still works without the index, just as a sequential scan
+            logger.warn("Could not create search index {}: {}", indexName, e.getMessage());
+        }
+    }
+}
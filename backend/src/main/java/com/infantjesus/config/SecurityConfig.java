@@ -1,7 +1,10 @@
 package com.infantjesus.config;
 
+import com.infantjesus.security.AdaptivePasswordEncoder;
 import com.infantjesus.security.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,7 +12,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -17,11 +19,13 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(JwtKeyProperties.class)
 public class SecurityConfig {
     
     @Autowired
@@ -39,6 +43,7 @@ public class SecurityConfig {
                 // Public API endpoints
                 .requestMatchers("/events").permitAll()
                 .requestMatchers("/events/{id}").permitAll()
+                .requestMatchers("/events/search").permitAll()
                 .requestMatchers("/classes").permitAll()
                 .requestMatchers("/classes/live").permitAll()
                 .requestMatchers("/classes/{id}").permitAll()
@@ -48,6 +53,8 @@ public class SecurityConfig {
                 .requestMatchers("/announcements/priority/{priority}").permitAll()
                 .requestMatchers("/facilities").permitAll()
                 .requestMatchers("/facilities/{id}").permitAll()
+                .requestMatchers("/facilities/search").permitAll()
+                .requestMatchers("/stream/updates").permitAll()
                 // Admin endpoints - require authentication
                 .requestMatchers("/events/admin/**").authenticated()
                 .requestMatchers("/classes/admin/**").authenticated()
@@ -63,9 +70,17 @@ public class SecurityConfig {
         return http.build();
     }
     
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    /**
+     * BCrypt on a bounded pool with a work factor calibrated to app.security.password.target-latency
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.strength:0}") int strength,
+            @Value("${app.security.password.target-latency:250ms}") Duration targetLatency,
+            @Value("${app.security.password.pool-size:2}") int poolSize,
+            @Value("${app.security.password.queue-capacity:32}") int queueCapacity,
+            @Value("${app.security.password.max-wait:5s}") Duration maxWait) {
+        return new AdaptivePasswordEncoder(strength, targetLatency, poolSize, queueCapacity, maxWait);
     }
     
     @Bean
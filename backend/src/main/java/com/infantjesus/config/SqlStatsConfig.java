@@ -0,0 +1,60 @@
+package com.infantjesus.config;
+
+import com.infantjesus.metrics.JdbcStatsProxy;
+import com.infantjesus.metrics.SlowQueryLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes all JDBC work through {@link JdbcStatsProxy} so statements, rows and DB time are counted per
+ * request and slow statements reach the {@link SlowQueryLog}
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsConfig {
+
+    // Static so the post-processor is registered before the DataSource it wraps is created
+    @Bean
+    public static BeanPostProcessor sqlStatsDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return JdbcStatsProxy.wrap(dataSource, new SlowQueryListener(slowQueryLog));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Looks the log up on first use; it depends on the DataSource this listener is attached to
+     */
+    private static final class SlowQueryListener implements JdbcStatsProxy.StatementListener {
+
+        private final ObjectProvider<SlowQueryLog> provider;
+        private volatile SlowQueryLog slowQueryLog;
+
+        SlowQueryListener(ObjectProvider<SlowQueryLog> provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public void onStatement(String sql, Object[] binds, int bindCount, long elapsedNanos) {
+            SlowQueryLog log = slowQueryLog;
+            if (log == null) {
+                log = provider.getIfAvailable();
+                if (log == null) {
+                    return;
+                }
+                slowQueryLog = log;
+            }
+            log.onStatement(sql, binds, bindCount, elapsedNanos);
+        }
+    }
+}
@@ -4,15 +4,21 @@ import com.infantjesus.dto.AdminLoginDto;
 import com.infantjesus.dto.AdminRegistrationDto;
 import com.infantjesus.dto.AdminCreationDto;
 import com.infantjesus.entity.Admin;
-import com.infantjesus.repository.AdminRepository;
 import com.infantjesus.security.JwtUtil;
+import com.infantjesus.security.LoginRateLimiter;
+import com.infantjesus.security.TokenRevocationService;
 import com.infantjesus.service.AdminService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +28,8 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class AdminController {
     
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+    
     @Autowired
     private UserDetailsService userDetailsService;
     
@@ -32,7 +40,10 @@ public class AdminController {
     private AdminService adminService;
     
     @Autowired
-    private AdminRepository adminRepository;
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
     
     /**
      * Simple test endpoint to verify backend is working
@@ -60,11 +71,13 @@ public class AdminController {
      * Admin login endpoint
      */
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(@RequestBody AdminLoginDto loginDto) {
-        // Debug logging
-        System.out.println("🔐 Login attempt received:");
-        System.out.println("   Username: " + loginDto.getUsername());
-        System.out.println("   Password: " + (loginDto.getPassword() != null ? "***" : "NULL"));
+    public ResponseEntity<Map<String, Object>> login(@RequestBody AdminLoginDto loginDto, HttpServletRequest request) {
+        Duration retryAfter = loginRateLimiter.admitLogin(request.getRemoteAddr(), loginDto.getUsername());
+        if (!retryAfter.isZero()) {
+            return RateLimitResponses.tooManyRequests(retryAfter, "Too many login attempts, please try again later");
+        }
+        
+        logger.debug("Login attempt for username={}", loginDto.getUsername());
         
         // Use the proper authentication service instead of hardcoded credentials
         Map<String, Object> authResult = adminService.authenticateAdmin(loginDto);
@@ -93,6 +106,7 @@ public class AdminController {
                 return ResponseEntity.badRequest().body(response);
             }
         } else {
+            loginRateLimiter.recordLoginFailure(request.getRemoteAddr(), loginDto.getUsername());
             return ResponseEntity.badRequest().body(authResult);
         }
     }
@@ -141,7 +155,7 @@ public class AdminController {
         }
         
         try {
-            adminRepository.deleteById(adminId);
+            adminService.deleteAdmin(adminId);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Admin deleted successfully");
@@ -165,10 +179,11 @@ public class AdminController {
             }
             
             // Extract username from token
-            String username = jwtUtil.extractUsername(token);
+            Claims claims = jwtUtil.extractAllClaims(token);
+            String username = claims.getSubject();
             
             // Validate token
-            if (jwtUtil.validateToken(token, username)) {
+            if (jwtUtil.validateClaims(claims, username) && !tokenRevocationService.isRevoked(claims)) {
                 Map<String, String> response = new HashMap<>();
                 response.put("valid", "true");
                 response.put("username", username);
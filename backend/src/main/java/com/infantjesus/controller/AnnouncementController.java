@@ -1,14 +1,22 @@
 package com.infantjesus.controller;
 
 import com.infantjesus.dto.AnnouncementDto;
+import com.infantjesus.entity.AnnouncementBroadcast;
+import com.infantjesus.service.CollectionVersionService;
+import com.infantjesus.service.JsonSnapshotService;
 import com.infantjesus.service.AnnouncementService;
+import com.infantjesus.service.BroadcastService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/announcements")
@@ -20,13 +28,37 @@ public class AnnouncementController {
     @Autowired
     private AnnouncementService announcementService;
     
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
+    @Autowired
+    private JsonSnapshotService snapshotService;
+    
+    @Autowired
+    private BroadcastService broadcastService;
+    
     /**
-     * Get all active announcements (public endpoint)
+     * Get all active announcements (public endpoint); pass cursor and/or limit for keyset pagination
      */
     @GetMapping
-    public ResponseEntity<List<AnnouncementDto>> getActiveAnnouncements() {
-        List<AnnouncementDto> announcements = announcementService.getActiveAnnouncements();
-        return ResponseEntity.ok(announcements);
+    public ResponseEntity<?> getActiveAnnouncements(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest webRequest) {
+        // Answer revalidation from the version counter alone, before touching the cache or database
+        String etag = collectionVersions.etag(CollectionVersionService.ANNOUNCEMENTS);
+        if (cursor == null && limit == null) {
+            return SnapshotResponses.respond(webRequest, etag, () -> snapshotService.get(CollectionVersionService.ANNOUNCEMENTS));
+        }
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache());
+        try {
+            return ok.body(announcementService.getActiveAnnouncementsPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     /**
@@ -48,17 +80,17 @@ public class AnnouncementController {
     @PostMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE, MediaType.ALL_VALUE }, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<AnnouncementDto> createAnnouncementPublic(@RequestBody AnnouncementDto announcementDto) {
         try {
-            logger.info("Creating new announcement via public endpoint: title={}, priority={}", 
+            logger.debug("Creating new announcement via public endpoint: title={}, priority={}", 
                        announcementDto.getTitle(), announcementDto.getPriority());
             
             // Set default dates if not provided
             if (announcementDto.getCreatedAt() == null) {
                 announcementDto.setCreatedAt(java.time.LocalDateTime.now());
-                logger.info("Set default createdAt to current time");
+                logger.debug("Set default createdAt to current time");
             }
             if (announcementDto.getUpdatedAt() == null) {
                 announcementDto.setUpdatedAt(java.time.LocalDateTime.now());
-                logger.info("Set default updatedAt to current time");
+                logger.debug("Set default updatedAt to current time");
             }
             
             AnnouncementDto createdAnnouncement = announcementService.createAnnouncement(announcementDto);
@@ -86,21 +118,23 @@ public class AnnouncementController {
     @PostMapping(value = "/admin", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE, MediaType.ALL_VALUE }, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<AnnouncementDto> createAnnouncement(@RequestBody AnnouncementDto announcementDto) {
         try {
-            logger.info("Creating new announcement via admin endpoint: title={}, priority={}", 
+            logger.debug("Creating new announcement via admin endpoint: title={}, priority={}", 
                        announcementDto.getTitle(), announcementDto.getPriority());
             
             // Set default dates if not provided
             if (announcementDto.getCreatedAt() == null) {
                 announcementDto.setCreatedAt(java.time.LocalDateTime.now());
-                logger.info("Set default createdAt to current time");
+                logger.debug("Set default createdAt to current time");
             }
             if (announcementDto.getUpdatedAt() == null) {
                 announcementDto.setUpdatedAt(java.time.LocalDateTime.now());
-                logger.info("Set default updatedAt to current time");
+                logger.debug("Set default updatedAt to current time");
             }
             
             AnnouncementDto createdAnnouncement = announcementService.createAnnouncement(announcementDto);
             logger.info("Announcement created successfully with ID: {}", createdAnnouncement.getId());
+            // Only the authenticated endpoint may trigger email to every user
+            startBroadcast(() -> broadcastService.onAnnouncementCreated(createdAnnouncement));
             
             return ResponseEntity.ok(createdAnnouncement);
         } catch (Exception e) {
@@ -117,9 +151,10 @@ public class AnnouncementController {
             @PathVariable Long id,
             @RequestBody AnnouncementDto announcementDto) {
         try {
-            logger.info("Updating announcement with ID: {}", id);
+            logger.debug("Updating announcement with ID: {}", id);
             AnnouncementDto updatedAnnouncement = announcementService.updateAnnouncement(id, announcementDto);
-            logger.info("Announcement updated successfully");
+            logger.info("Announcement updated successfully with ID: {}", id);
+            startBroadcast(() -> broadcastService.onAnnouncementUpdated(updatedAnnouncement));
             return ResponseEntity.ok(updatedAnnouncement);
         } catch (RuntimeException e) {
             logger.error("Announcement not found: {}", e.getMessage());
@@ -159,11 +194,14 @@ public class AnnouncementController {
     }
     
     /**
-     * Search announcements by keyword (public endpoint)
+     * Search announcements by keyword, most relevant first (public endpoint)
      */
     @GetMapping("/search")
-    public ResponseEntity<List<AnnouncementDto>> searchAnnouncements(@RequestParam String keyword) {
-        List<AnnouncementDto> announcements = announcementService.searchAnnouncements(keyword);
+    public ResponseEntity<List<AnnouncementDto>> searchAnnouncements(
+            @RequestParam String keyword,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        List<AnnouncementDto> announcements = announcementService.searchAnnouncements(keyword, page, size);
         return ResponseEntity.ok(announcements);
     }
     
@@ -175,4 +213,16 @@ public class AnnouncementController {
         List<AnnouncementDto> announcements = announcementService.getAnnouncementsByPriority(priority);
         return ResponseEntity.ok(announcements);
     }
+    
+    /**
+     * A failed broadcast must not fail the save that triggered it; it can be started again by hand
+     */
+    private void startBroadcast(Supplier<Optional<AnnouncementBroadcast>> trigger) {
+        try {
+            trigger.get().ifPresent(broadcast ->
+                    logger.info("Broadcast {} queued for announcement {}", broadcast.getId(), broadcast.getAnnouncementId()));
+        } catch (RuntimeException e) {
+            logger.error("Could not start announcement broadcast: {}", e.getMessage(), e);
+        }
+    }
 }
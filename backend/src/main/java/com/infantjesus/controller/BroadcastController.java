@@ -0,0 +1,86 @@
+package com.infantjesus.controller;
+
+import com.infantjesus.entity.AnnouncementBroadcast;
+import com.infantjesus.service.BroadcastService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/announcements/admin")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+public class BroadcastController {
+    
+    @Autowired
+    private BroadcastService broadcastService;
+    
+    /**
+     * Email an announcement to all users (admin only)
+     */
+    @PostMapping("/{id}/broadcast")
+    public ResponseEntity<Map<String, Object>> startBroadcast(@PathVariable Long id) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            AnnouncementBroadcast broadcast = broadcastService.start(id);
+            response.put("success", true);
+            response.put("message", "Broadcast started");
+            response.put("broadcast", broadcast);
+            return ResponseEntity.accepted().body(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * Broadcasts of an announcement, latest first (admin only)
+     */
+    @GetMapping("/{id}/broadcasts")
+    public ResponseEntity<Map<String, Object>> getBroadcasts(@PathVariable Long id) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("broadcasts", broadcastService.getBroadcastsForAnnouncement(id));
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Progress of a broadcast: users queued so far and delivery state of their messages (admin only)
+     */
+    @GetMapping("/broadcasts/{broadcastId}")
+    public ResponseEntity<Map<String, Object>> getProgress(@PathVariable Long broadcastId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("broadcast", broadcastService.getBroadcast(broadcastId));
+            response.put("delivery", broadcastService.getDeliveryCounts(broadcastId));
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(404).body(response);
+        }
+    }
+    
+    /**
+     * Stop queueing further messages for a broadcast (admin only)
+     */
+    @PostMapping("/broadcasts/{broadcastId}/cancel")
+    public ResponseEntity<Map<String, Object>> cancel(@PathVariable Long broadcastId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("message", "Broadcast cancelled");
+            response.put("broadcast", broadcastService.cancel(broadcastId));
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(404).body(response);
+        }
+    }
+}
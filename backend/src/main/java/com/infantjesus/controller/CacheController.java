@@ -0,0 +1,51 @@
+package com.infantjesus.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    /**
+     * Hit/miss/eviction counters and current size for every cache (SUPER_ADMIN only)
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> caches = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+                CacheStats stats = nativeCache.stats();
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("size", nativeCache.estimatedSize());
+                entry.put("hits", stats.hitCount());
+                entry.put("misses", stats.missCount());
+                entry.put("hitRate", stats.hitRate());
+                entry.put("evictions", stats.evictionCount());
+                entry.put("evictionWeight", stats.evictionWeight());
+                caches.put(name, entry);
+            }
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("caches", caches);
+        return ResponseEntity.ok(response);
+    }
+}
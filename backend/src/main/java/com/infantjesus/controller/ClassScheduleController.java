@@ -1,13 +1,16 @@
 package com.infantjesus.controller;
 
 import com.infantjesus.dto.ClassScheduleDto;
+import com.infantjesus.service.CollectionVersionService;
 import com.infantjesus.service.ClassScheduleService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 @RestController
@@ -20,13 +23,21 @@ public class ClassScheduleController {
     @Autowired
     private ClassScheduleService classScheduleService;
     
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
     /**
      * Get all live classes (public endpoint)
      */
     @GetMapping("/live")
-    public ResponseEntity<List<ClassScheduleDto>> getLiveClasses() {
+    public ResponseEntity<List<ClassScheduleDto>> getLiveClasses(WebRequest webRequest) {
+        // Answer revalidation from the version counter alone, before touching the cache or database
+        String etag = collectionVersions.etag(CollectionVersionService.CLASSES);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<ClassScheduleDto> liveClasses = classScheduleService.getLiveClasses();
-        return ResponseEntity.ok(liveClasses);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(liveClasses);
     }
     
     /**
@@ -35,7 +46,7 @@ public class ClassScheduleController {
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ClassScheduleDto> createClassSchedulePublic(@RequestBody ClassScheduleDto classScheduleDto) {
         try {
-            logger.info("Creating new class schedule via public endpoint: subject={}, teacher={}", 
+            logger.debug("Creating new class schedule via public endpoint: subject={}, teacher={}", 
                        classScheduleDto.getSubject(), classScheduleDto.getTeacher());
             
             ClassScheduleDto createdClass = classScheduleService.createClassSchedule(classScheduleDto);
@@ -76,13 +87,13 @@ public class ClassScheduleController {
     @PostMapping(value = "/admin", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ClassScheduleDto> createClassSchedule(@RequestBody ClassScheduleDto classScheduleDto) {
         try {
-            logger.info("Creating new class schedule via admin endpoint: subject={}, teacher={}", 
+            logger.debug("Creating new class schedule via admin endpoint: subject={}, teacher={}", 
                        classScheduleDto.getSubject(), classScheduleDto.getTeacher());
             
             // Set default scheduleTime if not provided
             if (classScheduleDto.getScheduleTime() == null) {
                 classScheduleDto.setScheduleTime(java.time.LocalDateTime.now());
-                logger.info("Set default scheduleTime to current time");
+                logger.debug("Set default scheduleTime to current time");
             }
             
             ClassScheduleDto createdClass = classScheduleService.createClassSchedule(classScheduleDto);
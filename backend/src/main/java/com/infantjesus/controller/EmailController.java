@@ -25,9 +25,9 @@ public class EmailController {
 	public ResponseEntity<Response> sendQuery(@RequestBody QueryRequest query) {
 		boolean success = emailService.sendQuery(query);
 		if (success) {
-			return ResponseEntity.ok(new Response(true, "Query sent successfully"));
+			return ResponseEntity.accepted().body(new Response(true, "Query received and queued for delivery"));
 		} else {
-			return ResponseEntity.status(500).body(new Response(false, "Email failed to send"));
+			return ResponseEntity.status(500).body(new Response(false, "Email could not be queued"));
 		}
 	}
 
@@ -41,9 +41,9 @@ public class EmailController {
 
 		boolean success = emailService.sendEmail(req.getTo(), req.getSubject(), req.getBody());
 		if (success) {
-			return ResponseEntity.ok(new Response(true, "Email sent successfully"));
+			return ResponseEntity.accepted().body(new Response(true, "Email queued for delivery"));
 		} else {
-			return ResponseEntity.status(500).body(new Response(false, "Email failed to send"));
+			return ResponseEntity.status(500).body(new Response(false, "Email could not be queued"));
 		}
 	}
 
@@ -1,14 +1,18 @@
 package com.infantjesus.controller;
 
 import com.infantjesus.dto.EventDto;
+import com.infantjesus.service.CollectionVersionService;
+import com.infantjesus.service.JsonSnapshotService;
 import com.infantjesus.service.EventService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
  
 import java.util.List;
 
@@ -22,12 +26,45 @@ public class EventController {
     @Autowired
     private EventService eventService;
     
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
+    @Autowired
+    private JsonSnapshotService snapshotService;
+    
     /**
-     * Get all events (public endpoint)
+     * Get all events (public endpoint); pass cursor and/or limit for keyset pagination
      */
     @GetMapping
-    public ResponseEntity<List<EventDto>> getAllEvents() {
-        List<EventDto> events = eventService.getAllEvents();
+    public ResponseEntity<?> getAllEvents(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest webRequest) {
+        // Answer revalidation from the version counter alone, before touching the cache or database
+        String etag = collectionVersions.etag(CollectionVersionService.EVENTS);
+        if (cursor == null && limit == null) {
+            return SnapshotResponses.respond(webRequest, etag, () -> snapshotService.get(CollectionVersionService.EVENTS));
+        }
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache());
+        try {
+            return ok.body(eventService.getEventsPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Search events, most relevant first (public endpoint)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<EventDto>> searchEvents(
+            @RequestParam String keyword,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        List<EventDto> events = eventService.searchEvents(keyword, page, size);
         return ResponseEntity.ok(events);
     }
     
@@ -50,7 +87,7 @@ public class EventController {
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<EventDto> createEventPublic(@RequestBody EventDto eventDto) {
         try {
-            logger.info("Creating new event via public endpoint: title={}, description={}, eventDateTime={}", 
+            logger.debug("Creating new event via public endpoint: title={}, description={}, eventDateTime={}", 
                        eventDto.getTitle(), eventDto.getDescription(), eventDto.getEventDateTime());
             
             EventDto createdEvent = eventService.createEvent(eventDto);
@@ -69,13 +106,13 @@ public class EventController {
     @PostMapping(value = "/admin", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<EventDto> createEvent(@RequestBody EventDto eventDto) {
         try {
-            logger.info("Creating new event via admin endpoint: title={}, description={}, eventDateTime={}", 
+            logger.debug("Creating new event via admin endpoint: title={}, description={}, eventDateTime={}", 
                        eventDto.getTitle(), eventDto.getDescription(), eventDto.getEventDateTime());
             
             // Set default eventDateTime if not provided
             if (eventDto.getEventDateTime() == null) {
                 eventDto.setEventDateTime(java.time.LocalDateTime.now());
-                logger.info("Set default eventDateTime to current time");
+                logger.debug("Set default eventDateTime to current time");
             }
             
             EventDto createdEvent = eventService.createEvent(eventDto);
@@ -100,7 +137,7 @@ public class EventController {
             @RequestParam(value = "image", required = false) org.springframework.web.multipart.MultipartFile image
     ) {
         try {
-            logger.info("Creating new event via multipart upload: title={}, eventDateTime={}", title, eventDateTime);
+            logger.debug("Creating new event via multipart upload: title={}, eventDateTime={}", title, eventDateTime);
             EventDto created = eventService.createEvent(title, description, eventDateTime, image);
             return ResponseEntity.ok(created);
         } catch (Exception e) {
@@ -117,9 +154,9 @@ public class EventController {
             @PathVariable Long id,
             @RequestBody EventDto eventDto) {
         try {
-            logger.info("Updating event with ID: {}", id);
+            logger.debug("Updating event with ID: {}", id);
             EventDto updatedEvent = eventService.updateEvent(id, eventDto);
-            logger.info("Event updated successfully");
+            logger.info("Event updated successfully with ID: {}", id);
             return ResponseEntity.ok(updatedEvent);
         } catch (RuntimeException e) {
             logger.error("Event not found: {}", e.getMessage());
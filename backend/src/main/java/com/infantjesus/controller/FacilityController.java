@@ -1,10 +1,14 @@
 package com.infantjesus.controller;
 
 import com.infantjesus.dto.FacilityDto;
+import com.infantjesus.service.CollectionVersionService;
+import com.infantjesus.service.JsonSnapshotService;
 import com.infantjesus.service.FacilityService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.List;
@@ -17,13 +21,34 @@ public class FacilityController {
     @Autowired
     private FacilityService facilityService;
     
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
+    @Autowired
+    private JsonSnapshotService snapshotService;
+    
     /**
-     * Get all facilities (public endpoint)
+     * Get all facilities (public endpoint); pass cursor and/or limit for keyset pagination
      */
     @GetMapping
-    public ResponseEntity<List<FacilityDto>> getAllFacilities() {
-        List<FacilityDto> facilities = facilityService.getAllFacilities();
-        return ResponseEntity.ok(facilities);
+    public ResponseEntity<?> getAllFacilities(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest webRequest) {
+        // Answer revalidation from the version counter alone, before touching the cache or database
+        String etag = collectionVersions.etag(CollectionVersionService.FACILITIES);
+        if (cursor == null && limit == null) {
+            return SnapshotResponses.respond(webRequest, etag, () -> snapshotService.get(CollectionVersionService.FACILITIES));
+        }
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache());
+        try {
+            return ok.body(facilityService.getFacilitiesPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     /**
@@ -40,11 +65,14 @@ public class FacilityController {
     }
     
     /**
-     * Search facilities (public endpoint)
+     * Search facilities, most relevant first (public endpoint)
      */
     @GetMapping("/search")
-    public ResponseEntity<List<FacilityDto>> searchFacilities(@RequestParam String keyword) {
-        List<FacilityDto> facilities = facilityService.searchFacilities(keyword);
+    public ResponseEntity<List<FacilityDto>> searchFacilities(
+            @RequestParam String keyword,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        List<FacilityDto> facilities = facilityService.searchFacilities(keyword, page, size);
         return ResponseEntity.ok(facilities);
     }
     
@@ -0,0 +1,90 @@
+package com.infantjesus.controller;
+
+import com.infantjesus.service.FlightRecordingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/jfr")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('SUPER_ADMIN')")
+public class FlightRecordingController {
+    
+    @Autowired
+    private FlightRecordingService flightRecordingService;
+    
+    /**
+     * State of the current or last recording (SUPER_ADMIN only)
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("recording", flightRecordingService.getStatus());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Start a bounded recording; it stops by itself after durationSeconds (SUPER_ADMIN only)
+     */
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Object>> start(@RequestParam(defaultValue = "profile") String settings,
+                                                     @RequestParam(required = false) Long durationSeconds) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Duration duration = durationSeconds != null ? Duration.ofSeconds(durationSeconds) : null;
+            response.put("success", true);
+            response.put("message", "Recording started");
+            response.put("recording", flightRecordingService.start(settings, duration));
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * Stop the running recording so it can be downloaded (SUPER_ADMIN only)
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<Map<String, Object>> stop() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("message", "Recording stopped");
+            response.put("recording", flightRecordingService.stop());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * Download the last finished recording as a .jfr file (SUPER_ADMIN only)
+     */
+    @GetMapping("/recording")
+    public ResponseEntity<Resource> download() {
+        Path file = flightRecordingService.getRecordingFile();
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("recording.jfr").build().toString())
+                .body(new FileSystemResource(file));
+    }
+}
@@ -0,0 +1,50 @@
+package com.infantjesus.controller;
+
+import com.infantjesus.service.LiveUpdateBus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@CrossOrigin(origins = "*")
+public class LiveUpdateController {
+    
+    @Autowired
+    private LiveUpdateBus liveUpdateBus;
+    
+    /**
+     * Server-Sent Events stream of live class toggles and new announcements (public endpoint).
+     * Browsers resend the last event id on reconnect; a "resync" event means updates were missed.
+     */
+    @GetMapping(value = "/stream/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUpdates(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = liveUpdateBus.subscribe(lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        }
+        return ResponseEntity.ok()
+                // Stop nginx from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .header("Cache-Control", "no-cache")
+                .body(emitter);
+    }
+    
+    /**
+     * Stream subscriber and delivery counters (SUPER_ADMIN only)
+     */
+    @GetMapping("/admin/stream/stats")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("stream", liveUpdateBus.getMetrics());
+        return ResponseEntity.ok(response);
+    }
+}
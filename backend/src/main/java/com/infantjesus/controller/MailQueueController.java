@@ -0,0 +1,79 @@
+package com.infantjesus.controller;
+
+import com.infantjesus.entity.OutboundMail;
+import com.infantjesus.service.MailQueueService;
+import com.infantjesus.service.SmtpTransportPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/admin/mail")
+@CrossOrigin(origins = "*")
+public class MailQueueController {
+    
+    @Autowired
+    private MailQueueService mailQueueService;
+    
+    // Only present when app.mail.pool.enabled=true
+    @Autowired(required = false)
+    private SmtpTransportPool smtpTransportPool;
+    
+    /**
+     * Queue depth by status (SUPER_ADMIN only)
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("counts", mailQueueService.getCounts());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * SMTP connection pool counters (SUPER_ADMIN only)
+     */
+    @GetMapping("/pool")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getPoolMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("enabled", smtpTransportPool != null);
+        if (smtpTransportPool != null) {
+            response.put("pool", smtpTransportPool.getMetrics());
+        }
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Messages that exhausted their retries (SUPER_ADMIN only)
+     */
+    @GetMapping("/dead")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getDeadLetters(@RequestParam(defaultValue = "50") int limit) {
+        List<OutboundMail> deadLetters = mailQueueService.getDeadLetters(Math.max(1, Math.min(limit, 500)));
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("messages", deadLetters);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Requeue a dead-lettered message (SUPER_ADMIN only)
+     */
+    @PostMapping("/dead/{id}/retry")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> retry(@PathVariable Long id) {
+        Optional<OutboundMail> requeued = mailQueueService.retry(id);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", requeued.isPresent());
+        response.put("message", requeued.isPresent() ? "Message requeued" : "No dead-lettered message with id: " + id);
+        return requeued.isPresent() ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
+    }
+}
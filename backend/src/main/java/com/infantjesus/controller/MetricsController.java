@@ -0,0 +1,42 @@
+package com.infantjesus.controller;
+
+import com.infantjesus.metrics.RequestMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/metrics")
+@CrossOrigin(origins = "*")
+public class MetricsController {
+    
+    private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8");
+    
+    @Autowired
+    private RequestMetrics requestMetrics;
+    
+    /**
+     * Per-route latency, error and in-flight metrics in the Prometheus text format (SUPER_ADMIN only)
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<String> scrape() {
+        return ResponseEntity.ok().contentType(PROMETHEUS_TEXT).body(requestMetrics.prometheus());
+    }
+    
+    /**
+     * The same metrics as JSON, slowest p99 first (SUPER_ADMIN only)
+     */
+    @GetMapping("/routes")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRoutes() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("routes", requestMetrics.summary());
+        return ResponseEntity.ok(response);
+    }
+}
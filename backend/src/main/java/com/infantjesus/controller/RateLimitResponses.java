@@ -0,0 +1,27 @@
+package com.infantjesus.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 429 responses for throttled requests, in the same shape as the other success/message bodies
+ */
+final class RateLimitResponses {
+    
+    private RateLimitResponses() {}
+    
+    static ResponseEntity<Map<String, Object>> tooManyRequests(Duration retryAfter, String message) {
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        response.put("retryAfterSeconds", seconds);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(response);
+    }
+}
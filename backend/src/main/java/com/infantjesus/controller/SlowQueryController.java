@@ -0,0 +1,43 @@
+package com.infantjesus.controller;
+
+import com.infantjesus.metrics.SlowQueryLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/slow-queries")
+@CrossOrigin(origins = "*")
+public class SlowQueryController {
+    
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+    
+    /**
+     * Most recent slow statements with binds and captured plans, newest first (SUPER_ADMIN only)
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSlowQueries(@RequestParam(defaultValue = "50") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("queries", slowQueryLog.getEntries(Math.max(1, Math.min(limit, 1000))));
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Empty the log and allow every statement shape to be explained again (SUPER_ADMIN only)
+     */
+    @DeleteMapping
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> clear() {
+        slowQueryLog.clear();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Slow query log cleared");
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,123 @@
+package com.infantjesus.controller;
+
+import com.infantjesus.service.JsonSnapshotService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import java.util.function.Supplier;
+
+/**
+ * Writes a pre-encoded listing snapshot, choosing the gzip copy when the client accepts it.
+ * The gzip copy carries its own strong ETag, since strong validators must differ per content-coding.
+ */
+final class SnapshotResponses {
+    
+    private static final String GZIP_ETAG_SUFFIX = "-gz";
+    
+    private SnapshotResponses() {}
+    
+    /**
+     * Answer a listing request from its snapshot. Revalidation is decided from the collection ETag alone,
+     * before the snapshot is loaded; either variant's ETag counts as a match, and the 304 names the one
+     * the client holds. Done here rather than with WebRequest.checkNotModified, which would also write
+     * the identity ETag onto a gzip response.
+     */
+    static ResponseEntity<byte[]> respond(WebRequest webRequest, String etag, Supplier<JsonSnapshotService.Snapshot> snapshot) {
+        String matched = matchingEtag(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH), etag);
+        if (matched != null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(matched)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        return of(snapshot.get(), webRequest);
+    }
+    
+    private static ResponseEntity<byte[]> of(JsonSnapshotService.Snapshot snapshot, WebRequest webRequest) {
+        boolean gzip = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        byte[] body = gzip ? snapshot.getGzip() : snapshot.getJson();
+        
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .eTag(gzip ? gzipEtag(snapshot.getEtag()) : snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
+    }
+    
+    /**
+     * The variant ETag listed in If-None-Match (weak comparison, as RFC 9110 requires there), or null
+     */
+    static String matchingEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String gzipEtag = gzipEtag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return etag;
+            }
+            if (tag.equals(gzipEtag)) {
+                return gzipEtag;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Whether Accept-Encoding allows gzip, honouring q-values ("gzip;q=0" and "*;q=0" forbid it)
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQ = null;
+        Double wildcardQ = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase();
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0.0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQ = gzipQ == null ? q : Math.max(gzipQ, q);
+            } else if (name.equals("*")) {
+                wildcardQ = q;
+            }
+        }
+        if (gzipQ != null) {
+            return gzipQ > 0;
+        }
+        return wildcardQ != null && wildcardQ > 0;
+    }
+    
+    /**
+     * The gzip variant's ETag: the identity ETag with a suffix inside the quotes
+     */
+    static String gzipEtag(String etag) {
+        if (etag.endsWith("\"")) {
+            return etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX + "\"";
+        }
+        return etag + GZIP_ETAG_SUFFIX;
+    }
+}
@@ -0,0 +1,43 @@
+package com.infantjesus.controller;
+
+import com.infantjesus.metrics.SqlStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import java.util.Locale;
+
+/**
+ * Adds the request's SQL totals to every response body as headers; for development and staging only,
+ * since the numbers describe the schema's access patterns
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "app.sql-stats.response-headers", havingValue = "true")
+public class SqlStatsHeaderAdvice implements ResponseBodyAdvice<Object> {
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStats stats = SqlStats.current();
+        if (stats != null) {
+            double millis = stats.getMicros() / 1000.0;
+            response.getHeaders().set("X-DB-Statements", Integer.toString(stats.getStatements()));
+            response.getHeaders().set("X-DB-Rows", Long.toString(stats.getRows()));
+            response.getHeaders().set("X-DB-Time-Ms", String.format(Locale.ROOT, "%.3f", millis));
+            // Shows up in the browser's network timing panel
+            response.getHeaders().add("Server-Timing",
+                    String.format(Locale.ROOT, "db;dur=%.3f;desc=\"%d statements\"", millis, stats.getStatements()));
+        }
+        return body;
+    }
+}
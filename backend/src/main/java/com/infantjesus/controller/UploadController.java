@@ -0,0 +1,263 @@
+package com.infantjesus.controller;
+
+import com.infantjesus.service.UploadStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UrlPathHelper;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves uploaded images. Bodies go out through Tomcat's sendfile when the connector supports it, so the
+ * bytes never pass through a heap buffer; otherwise they are streamed with FileChannel.transferTo.
+ */
+@RestController
+@CrossOrigin(origins = "*")
+public class UploadController {
+    
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    /** Below this size a plain copy is cheaper than handing the file to the poller (Tomcat's own default) */
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+    
+    /** Blob URLs contain the content hash, so their bytes can never change */
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl MUTABLE = CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic();
+    
+    /** Percent-decodes the path (stored names may contain spaces or non-ASCII) and strips ";" parameters */
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+    
+    @Autowired
+    private UploadStorageService uploadStorage;
+    
+    @RequestMapping(value = "/uploads/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String url = PATH_HELPER.getPathWithinApplication(request);
+        Path original;
+        try {
+            // locate() normalizes and checks the decoded path, so an encoded "../" cannot escape the root
+            original = uploadStorage.locate(url);
+        } catch (InvalidPathException e) {
+            original = null;
+        }
+        if (original == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        MediaType contentType = MediaTypeFactory.getMediaType(original.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        Variant variant = selectVariant(original, contentType, request);
+        Path file = variant.file;
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String etag = "\"" + uploadStorage.contentHash(file, attributes) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, (url.startsWith("/uploads/blobs/") ? IMMUTABLE : MUTABLE).getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, "Accept, Accept-Encoding");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(variant.contentType.toString());
+        if (variant.contentEncoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, variant.contentEncoding);
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request, etag, lastModified)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the region with sendfile(2) after this method returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+    
+    /**
+     * Prefer a stored AVIF/WebP copy of an image when the client accepts it, or a precompressed .gz copy
+     * of anything else when the client accepts gzip
+     */
+    private Variant selectVariant(Path original, MediaType contentType, HttpServletRequest request) {
+        String accept = headerOrEmpty(request, HttpHeaders.ACCEPT);
+        String acceptEncoding = headerOrEmpty(request, HttpHeaders.ACCEPT_ENCODING);
+        for (String suffix : UploadStorageService.VARIANT_SUFFIXES) {
+            Path candidate = original.resolveSibling(original.getFileName() + suffix);
+            boolean accepted = switch (suffix) {
+                case ".avif" -> accept.contains("image/avif");
+                case ".webp" -> accept.contains("image/webp");
+                case ".gz" -> acceptEncoding.contains("gzip");
+                default -> false;
+            };
+            if (accepted && Files.isRegularFile(candidate)) {
+                return switch (suffix) {
+                    case ".gz" -> new Variant(candidate, contentType, "gzip");
+                    default -> new Variant(candidate, MediaType.parseMediaType("image/" + suffix.substring(1)), null);
+                };
+            }
+        }
+        return new Variant(original, contentType, null);
+    }
+    
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // If-None-Match wins over If-Modified-Since when both are present
+            return matchesEtag(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+    
+    /**
+     * A Range is only honoured when If-Range, if sent, still names the current representation
+     */
+    private static boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        long ifRangeDate = dateHeader(request, HttpHeaders.IF_RANGE);
+        return ifRangeDate >= 0 && lastModified <= ifRangeDate;
+    }
+    
+    /**
+     * Parse a single "bytes=" range against the file length.
+     *
+     * @return {start, end} inclusive; an empty array to ignore the header and send the whole file;
+     *         null if the range cannot be satisfied
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            // Unknown unit or multipart ranges: a full 200 response is always allowed
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: the final N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+    
+    private static boolean matchesEtag(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+    
+    private static String headerOrEmpty(HttpServletRequest request, String name) {
+        String value = request.getHeader(name);
+        return value != null ? value.toLowerCase() : "";
+    }
+    
+    private static final class Variant {
+        final Path file;
+        final MediaType contentType;
+        final String contentEncoding;
+    
+        Variant(Path file, MediaType contentType, String contentEncoding) {
+            this.file = file;
+            this.contentType = contentType;
+            this.contentEncoding = contentEncoding;
+        }
+    }
+}
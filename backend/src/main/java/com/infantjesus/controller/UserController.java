@@ -1,10 +1,13 @@
 package com.infantjesus.controller;
 
 import com.infantjesus.dto.UserRegistrationDto;
+import com.infantjesus.security.LoginRateLimiter;
 import com.infantjesus.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.Duration;
 import java.util.Map;
 
 @RestController
@@ -15,11 +18,18 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+    
     /**
      * User registration endpoint - always creates USER role accounts
      */
     @PostMapping("/register")
-    public ResponseEntity<Map<String, Object>> register(@RequestBody UserRegistrationDto registrationDto) {
+    public ResponseEntity<Map<String, Object>> register(@RequestBody UserRegistrationDto registrationDto, HttpServletRequest request) {
+        Duration retryAfter = loginRateLimiter.admitRegistration(request.getRemoteAddr());
+        if (!retryAfter.isZero()) {
+            return RateLimitResponses.tooManyRequests(retryAfter, "Too many registration attempts, please try again later");
+        }
         Map<String, Object> result = userService.registerUser(registrationDto);
         return (Boolean) result.get("success") ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
     }
@@ -0,0 +1,85 @@
+package com.infantjesus.dto;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paginated listing; next is null on the last page
+ */
+public class CursorPage<T> {
+    
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    // Deepest offset-paginated search page; keeps page * size well inside int range
+    public static final int MAX_SEARCH_PAGE = 1000;
+    
+    private List<T> items;
+    private String next;
+    private int limit;
+    
+    // Default constructor
+    public CursorPage() {}
+    
+    // Constructor with fields
+    public CursorPage(List<T> items, String next, int limit) {
+        this.items = items;
+        this.next = next;
+        this.limit = limit;
+    }
+    
+    /**
+     * Clamp a client-supplied limit to [1, MAX_LIMIT]
+     */
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit < 1) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+    
+    /**
+     * Row offset of a client-supplied search page, with the page clamped to [0, MAX_SEARCH_PAGE]
+     */
+    public static int searchOffset(int page, int pageSize) {
+        return Math.min(Math.max(page, 0), MAX_SEARCH_PAGE) * pageSize;
+    }
+    
+    /**
+     * Build a page from rows fetched with limit + 1; the extra row only signals that a next page exists
+     */
+    public static <E, T> CursorPage<T> fromRows(List<E> rows, int limit,
+                                                Function<E, T> mapper,
+                                                Function<E, PageCursor> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<E> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        String next = hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        List<T> items = pageRows.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPage<>(items, next, limit);
+    }
+    
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public String getNext() {
+        return next;
+    }
+    
+    public void setNext(String next) {
+        this.next = next;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
@@ -7,6 +7,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 public class EventDto {
     
@@ -20,6 +21,11 @@ public class EventDto {
     
     private String imageUrl;
     
+    private String imageStatus;
+    
+    // Width in pixels to URL of each resized copy of imageUrl
+    private Map<Integer, String> srcset;
+    
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime eventDateTime;
     
@@ -71,6 +77,22 @@ public class EventDto {
         this.imageUrl = imageUrl;
     }
     
+    public String getImageStatus() {
+        return imageStatus;
+    }
+    
+    public void setImageStatus(String imageStatus) {
+        this.imageStatus = imageStatus;
+    }
+    
+    public Map<Integer, String> getSrcset() {
+        return srcset;
+    }
+    
+    public void setSrcset(Map<Integer, String> srcset) {
+        this.srcset = srcset;
+    }
+    
     public LocalDateTime getEventDateTime() {
         return eventDateTime;
     }
@@ -3,6 +3,7 @@ package com.infantjesus.dto;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 public class FacilityDto {
     
@@ -16,6 +17,11 @@ public class FacilityDto {
     
     private String imageUrl;
     
+    private String imageStatus;
+    
+    // Width in pixels to URL of each resized copy of imageUrl
+    private Map<Integer, String> srcset;
+    
     private LocalDateTime createdAt;
     
     // Default constructor
@@ -63,6 +69,22 @@ public class FacilityDto {
         this.imageUrl = imageUrl;
     }
     
+    public String getImageStatus() {
+        return imageStatus;
+    }
+    
+    public void setImageStatus(String imageStatus) {
+        this.imageStatus = imageStatus;
+    }
+    
+    public Map<Integer, String> getSrcset() {
+        return srcset;
+    }
+    
+    public void setSrcset(Map<Integer, String> srcset) {
+        this.srcset = srcset;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
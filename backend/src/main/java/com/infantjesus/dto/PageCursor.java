@@ -0,0 +1,53 @@
+package com.infantjesus.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position over (createdAt, id), both descending.
+ * Encoded as URL-safe base64 so clients treat it as a token rather than a query.
+ */
+public class PageCursor {
+    
+    private final LocalDateTime createdAt;
+    private final Long id;
+    
+    public PageCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -6,7 +6,9 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "announcements")
+@Table(name = "announcements", indexes = {
+    @Index(name = "idx_announcements_active_created_at_id", columnList = "is_active, created_at DESC, id DESC")
+})
 public class Announcement {
     
     @Id
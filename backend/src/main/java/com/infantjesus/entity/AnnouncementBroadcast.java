@@ -0,0 +1,147 @@
+package com.infantjesus.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One email fan-out of an announcement to all users. The cursor (last_user_id) advances with each
+ * enqueued batch in the same transaction, so a restarted server resumes exactly where it stopped.
+ */
+@Entity
+@Table(name = "announcement_broadcasts", indexes = {
+    @Index(name = "idx_announcement_broadcasts_announcement", columnList = "announcement_id"),
+    @Index(name = "idx_announcement_broadcasts_status", columnList = "status")
+})
+public class AnnouncementBroadcast {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "announcement_id", nullable = false)
+    private Long announcementId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BroadcastStatus status = BroadcastStatus.RUNNING;
+    
+    // Rendered when the broadcast starts; only {{username}} is filled in per recipient
+    @Column(nullable = false)
+    private String subject;
+    
+    @Column(columnDefinition = "TEXT")
+    private String body;
+    
+    @Column(name = "last_user_id", nullable = false)
+    private Long lastUserId = 0L;
+    
+    @Column(name = "enqueued_count", nullable = false)
+    private Integer enqueuedCount = 0;
+    
+    @Column(name = "total_recipients", nullable = false)
+    private Long totalRecipients = 0L;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    // Default constructor
+    public AnnouncementBroadcast() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getAnnouncementId() {
+        return announcementId;
+    }
+    
+    public void setAnnouncementId(Long announcementId) {
+        this.announcementId = announcementId;
+    }
+    
+    public BroadcastStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(BroadcastStatus status) {
+        this.status = status;
+    }
+    
+    public String getSubject() {
+        return subject;
+    }
+    
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+    
+    public String getBody() {
+        return body;
+    }
+    
+    public void setBody(String body) {
+        this.body = body;
+    }
+    
+    public Long getLastUserId() {
+        return lastUserId;
+    }
+    
+    public void setLastUserId(Long lastUserId) {
+        this.lastUserId = lastUserId;
+    }
+    
+    public Integer getEnqueuedCount() {
+        return enqueuedCount;
+    }
+    
+    public void setEnqueuedCount(Integer enqueuedCount) {
+        this.enqueuedCount = enqueuedCount;
+    }
+    
+    public Long getTotalRecipients() {
+        return totalRecipients;
+    }
+    
+    public void setTotalRecipients(Long totalRecipients) {
+        this.totalRecipients = totalRecipients;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -6,7 +6,9 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+    @Index(name = "idx_events_created_at_id", columnList = "created_at DESC, id DESC")
+})
 public class Event {
     
     @Id
@@ -24,6 +26,21 @@ public class Event {
     @Column(name = "image_url")
     private String imageUrl;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "image_status", length = 20)
+    private ImageStatus imageStatus;
+    
+    // Resized derivatives of imageUrl in HTML srcset syntax
+    @Column(name = "image_srcset", columnDefinition = "TEXT")
+    private String imageSrcset;
+    
+    // Identifies the upload in progress; a completion carrying any other token is stale and dropped
+    @Column(name = "image_upload_token", length = 36)
+    private String imageUploadToken;
+    
+    @Column(name = "image_pending_since")
+    private LocalDateTime imagePendingSince;
+    
     @Column(name = "event_date_time", nullable = false)
     private LocalDateTime eventDateTime;
     
@@ -77,6 +94,38 @@ public class Event {
         this.imageUrl = imageUrl;
     }
     
+    public ImageStatus getImageStatus() {
+        return imageStatus;
+    }
+    
+    public void setImageStatus(ImageStatus imageStatus) {
+        this.imageStatus = imageStatus;
+    }
+    
+    public String getImageSrcset() {
+        return imageSrcset;
+    }
+    
+    public void setImageSrcset(String imageSrcset) {
+        this.imageSrcset = imageSrcset;
+    }
+    
+    public String getImageUploadToken() {
+        return imageUploadToken;
+    }
+    
+    public void setImageUploadToken(String imageUploadToken) {
+        this.imageUploadToken = imageUploadToken;
+    }
+    
+    public LocalDateTime getImagePendingSince() {
+        return imagePendingSince;
+    }
+    
+    public void setImagePendingSince(LocalDateTime imagePendingSince) {
+        this.imagePendingSince = imagePendingSince;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
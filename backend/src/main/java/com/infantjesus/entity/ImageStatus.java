@@ -0,0 +1,7 @@
+package com.infantjesus.entity;
+
+public enum ImageStatus {
+    PENDING,
+    READY,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.infantjesus.entity;
+
+public enum MailStatus {
+    PENDING,  // waiting for its next attempt
+    SENDING,  // claimed by a worker; reclaimable once next_attempt_at (the lease) passes
+    SENT,
+    DEAD      // gave up after the maximum number of attempts
+}
@@ -0,0 +1,163 @@
+package com.infantjesus.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbound_mail", indexes = {
+    @Index(name = "idx_outbound_mail_status_next_attempt", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_outbound_mail_broadcast", columnList = "broadcast_id")
+})
+public class OutboundMail {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+    
+    @Column(name = "reply_to")
+    private String replyTo;
+    
+    @Column(nullable = false)
+    private String subject;
+    
+    @Column(columnDefinition = "TEXT")
+    private String body;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MailStatus status = MailStatus.PENDING;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    // Set when the message is part of an announcement broadcast
+    @Column(name = "broadcast_id")
+    private Long broadcastId;
+    
+    // Default constructor
+    public OutboundMail() {
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+    
+    // Constructor with fields
+    public OutboundMail(String recipient, String replyTo, String subject, String body) {
+        this();
+        this.recipient = recipient;
+        this.replyTo = replyTo;
+        this.subject = subject;
+        this.body = body;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getRecipient() {
+        return recipient;
+    }
+    
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+    
+    public String getReplyTo() {
+        return replyTo;
+    }
+    
+    public void setReplyTo(String replyTo) {
+        this.replyTo = replyTo;
+    }
+    
+    public String getSubject() {
+        return subject;
+    }
+    
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+    
+    public String getBody() {
+        return body;
+    }
+    
+    public void setBody(String body) {
+        this.body = body;
+    }
+    
+    public MailStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(MailStatus status) {
+        this.status = status;
+    }
+    
+    public Integer getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+    
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+    
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+    
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+    
+    public Long getBroadcastId() {
+        return broadcastId;
+    }
+    
+    public void setBroadcastId(Long broadcastId) {
+        this.broadcastId = broadcastId;
+    }
+}
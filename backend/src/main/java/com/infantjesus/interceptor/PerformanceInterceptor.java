@@ -1,32 +1,114 @@
 package com.infantjesus.interceptor;
 
+import com.infantjesus.jfr.HttpRequestEvent;
+import com.infantjesus.logging.RequestIdFilter;
+import com.infantjesus.metrics.RequestMetrics;
+import com.infantjesus.metrics.RouteMetrics;
+import com.infantjesus.metrics.SqlStats;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
 @Component
-public class PerformanceInterceptor implements HandlerInterceptor {
+public class PerformanceInterceptor implements AsyncHandlerInterceptor {
 
     private static final Logger logger = LoggerFactory.getLogger(PerformanceInterceptor.class);
 
+    private static final String START_TIME = PerformanceInterceptor.class.getName() + ".startTime";
+    private static final String ROUTE = PerformanceInterceptor.class.getName() + ".route";
+    private static final String JFR_EVENT = PerformanceInterceptor.class.getName() + ".jfrEvent";
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Value("${app.sql-stats.query-budget:10}")
+    private int queryBudget;
+
+    @Value("${app.sql-stats.repeat-threshold:5}")
+    private int repeatThreshold;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        request.setAttribute("startTime", System.currentTimeMillis());
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // Async redispatches were already counted (or deliberately dropped) on the first dispatch
+            return true;
+        }
+        RouteMetrics route = requestMetrics.route(request.getMethod(), routeTemplate(request));
+        route.started();
+        request.setAttribute(ROUTE, route);
+        request.setAttribute(START_TIME, System.nanoTime());
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            request.setAttribute(JFR_EVENT, event);
+        }
         return true;
     }
 
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streaming responses (e.g. /stream/updates) stay open for minutes and would swamp the histogram
+        RouteMetrics route = (RouteMetrics) request.getAttribute(ROUTE);
+        if (route != null) {
+            route.abandoned();
+            request.removeAttribute(ROUTE);
+        }
+        request.removeAttribute(JFR_EVENT);
+    }
+
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
-        long startTime = (Long) request.getAttribute("startTime");
-        long endTime = System.currentTimeMillis();
-        long duration = endTime - startTime;
+        RouteMetrics route = (RouteMetrics) request.getAttribute(ROUTE);
+        Long startTime = (Long) request.getAttribute(START_TIME);
+        if (route == null || startTime == null) {
+            return;
+        }
+        request.removeAttribute(ROUTE);
+        HttpRequestEvent event = (HttpRequestEvent) request.getAttribute(JFR_EVENT);
+        request.removeAttribute(JFR_EVENT);
+        long micros = (System.nanoTime() - startTime) / 1000;
+        route.completed(micros, response.getStatus(), ex != null);
         
+        long duration = micros / 1000;
         String method = request.getMethod();
         String uri = request.getRequestURI();
         
+        SqlStats sql = SqlStats.current();
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = method;
+                event.route = routeTemplate(request);
+                event.status = response.getStatus();
+                event.requestId = MDC.get(RequestIdFilter.MDC_KEY);
+                event.statements = sql != null ? sql.getStatements() : 0;
+                event.rows = sql != null ? sql.getRows() : 0;
+                event.failed = ex != null;
+                event.commit();
+            }
+        }
+        if (sql != null && sql.getStatements() > 0) {
+            boolean overBudget = sql.getStatements() > queryBudget;
+            boolean repeated = sql.getMostRepeatedCount() >= repeatThreshold;
+            route.recordSql(sql, overBudget, repeated);
+            if (overBudget) {
+                logger.warn("QUERY BUDGET EXCEEDED: {} {} ran {} statements (budget {}), {} rows, {}ms in JDBC",
+                        method, uri, sql.getStatements(), queryBudget, sql.getRows(), sql.getMicros() / 1000);
+            }
+            if (repeated) {
+                logger.warn("REPEATED STATEMENT (possible N+1): {} {} ran the same statement {} times: {}",
+                        method, uri, sql.getMostRepeatedCount(), sql.getMostRepeatedShape());
+            }
+        }
+        
         if (duration > 1000) { // Log slow requests (>1 second)
             logger.warn("SLOW REQUEST: {} {} took {}ms", method, uri, duration);
         } else if (duration > 500) { // Log medium requests (>500ms)
@@ -35,4 +117,12 @@ public class PerformanceInterceptor implements HandlerInterceptor {
             logger.debug("FAST REQUEST: {} {} took {}ms", method, uri, duration);
         }
     }
+
+    /**
+     * The mapping pattern that matched (e.g. /events/{id}), so each route is one series however many ids it sees
+     */
+    private static String routeTemplate(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "unmatched";
+    }
 }
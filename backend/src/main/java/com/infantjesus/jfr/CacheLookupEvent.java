@@ -0,0 +1,29 @@
+package com.infantjesus.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One @Cacheable lookup, emitted by {@link RecordingCaffeineCache}. A miss on a sync=true cache
+ * includes the time spent loading the value.
+ */
+@Name("com.infantjesus.CacheLookup")
+@Label("Cache Lookup")
+@Category({"Infant Jesus", "Cache"})
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+    
+    @Label("Cache")
+    public String cache;
+    
+    @Label("Hit")
+    public boolean hit;
+    
+    @Label("Loaded")
+    @Description("The value was computed by the caller (sync=true miss)")
+    public boolean loaded;
+}
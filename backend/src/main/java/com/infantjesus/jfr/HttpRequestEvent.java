@@ -0,0 +1,42 @@
+package com.infantjesus.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One handled HTTP request, emitted by PerformanceInterceptor. Spans the handler call, so JFR samples,
+ * lock and I/O events on the same thread inside it belong to this route.
+ */
+@Name("com.infantjesus.HttpRequest")
+@Label("HTTP Request")
+@Category({"Infant Jesus", "Web"})
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+    
+    @Label("Method")
+    public String method;
+    
+    @Label("Route")
+    @Description("Matched mapping pattern, e.g. /events/{id}")
+    public String route;
+    
+    @Label("Status")
+    public int status;
+    
+    @Label("Request ID")
+    public String requestId;
+    
+    @Label("SQL Statements")
+    public int statements;
+    
+    @Label("SQL Rows")
+    public long rows;
+    
+    @Label("Failed")
+    @Description("The handler threw an exception")
+    public boolean failed;
+}
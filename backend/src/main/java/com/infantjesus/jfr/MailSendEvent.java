@@ -0,0 +1,32 @@
+package com.infantjesus.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Mail handed to the outbound queue ("enqueue", on the request thread) or delivered over SMTP ("smtp",
+ * one event per batch on a mail worker)
+ */
+@Name("com.infantjesus.MailSend")
+@Label("Mail Send")
+@Category({"Infant Jesus", "Mail"})
+@StackTrace(false)
+public class MailSendEvent extends Event {
+    
+    public static final String ENQUEUE = "enqueue";
+    public static final String SMTP = "smtp";
+    
+    @Label("Operation")
+    public String operation;
+    
+    @Label("Messages")
+    public int messages;
+    
+    @Label("Failed")
+    @Description("Messages that could not be enqueued or delivered")
+    public int failed;
+}
@@ -0,0 +1,63 @@
+package com.infantjesus.jfr;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import java.util.concurrent.Callable;
+
+/**
+ * CaffeineCache that emits a {@link CacheLookupEvent} per lookup while a recording is running. Still a
+ * CaffeineCache, so callers that read the native cache's stats keep working.
+ */
+public class RecordingCaffeineCache extends CaffeineCache {
+    
+    public RecordingCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+    
+    public RecordingCaffeineCache(String name, AsyncCache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+    
+    @Override
+    protected Object lookup(Object key) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        if (!event.isEnabled()) {
+            return super.lookup(key);
+        }
+        event.begin();
+        Object value = super.lookup(key);
+        event.end();
+        if (event.shouldCommit()) {
+            event.cache = getName();
+            event.hit = value != null;
+            event.commit();
+        }
+        return value;
+    }
+    
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        if (!event.isEnabled()) {
+            return super.get(key, valueLoader);
+        }
+        // Written by whichever thread runs the loader; get() does not return before the load completes
+        boolean[] loaded = new boolean[1];
+        event.begin();
+        try {
+            return super.get(key, () -> {
+                loaded[0] = true;
+                return valueLoader.call();
+            });
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.cache = getName();
+                event.hit = !loaded[0];
+                event.loaded = loaded[0];
+                event.commit();
+            }
+        }
+    }
+}
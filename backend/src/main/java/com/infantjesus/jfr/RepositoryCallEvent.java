@@ -0,0 +1,38 @@
+package com.infantjesus.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call through a Spring Data repository, emitted by {@link RepositoryEventInterceptor}
+ */
+@Name("com.infantjesus.RepositoryCall")
+@Label("Repository Call")
+@Category({"Infant Jesus", "Database"})
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+    
+    @Label("Repository")
+    public String repository;
+    
+    @Label("Method")
+    public String method;
+    
+    @Label("Entity")
+    public String entity;
+    
+    @Label("Rows")
+    @Description("Entities returned or saved; -1 when the result is not a row count (e.g. count or exists)")
+    public long rows;
+    
+    @Label("SQL Statements")
+    @Description("JDBC statements executed during the call; -1 outside an HTTP request")
+    public int statements;
+    
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,68 @@
+package com.infantjesus.jfr;
+
+import com.infantjesus.metrics.SqlStats;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Added to every Spring Data repository proxy (see JfrConfig); emits a {@link RepositoryCallEvent} per
+ * call while a recording is running
+ */
+public class RepositoryEventInterceptor implements MethodInterceptor {
+    
+    private final String repository;
+    private final Class<?> domainType;
+    
+    public RepositoryEventInterceptor(Class<?> repositoryInterface, Class<?> domainType) {
+        this.repository = repositoryInterface.getSimpleName();
+        this.domainType = domainType;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        SqlStats sql = SqlStats.current();
+        int statementsBefore = sql != null ? sql.getStatements() : 0;
+        Object result = null;
+        boolean failed = true;
+        event.begin();
+        try {
+            result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.method = invocation.getMethod().getName();
+                event.entity = domainType.getSimpleName();
+                event.rows = failed ? -1 : rowCount(result);
+                event.statements = sql != null ? sql.getStatements() - statementsBefore : -1;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+    
+    private long rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return domainType.isInstance(result) ? 1 : -1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.infantjesus.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback's AsyncAppender (a preallocated array queue drained by one worker thread) that also counts
+ * what it throws away. Configured with neverBlock, so a full queue drops the event instead of stalling
+ * the request thread; below the discarding threshold INFO and lower are dropped first.
+ */
+public class BoundedAsyncAppender extends AsyncAppender {
+    
+    private static final LongAdder DROPPED = new LongAdder();
+    
+    /**
+     * Events dropped since startup by every instance of this appender
+     */
+    public static long getDroppedEvents() {
+        return DROPPED.sum();
+    }
+    
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Mirrors the checks in AsyncAppenderBase.append/put; racy, so the count is approximate
+        int remaining = getRemainingCapacity();
+        if (remaining == 0 || (remaining < getDiscardingThreshold() && isDiscardable(event))) {
+            DROPPED.increment();
+        }
+        super.append(event);
+    }
+}
@@ -0,0 +1,86 @@
+package com.infantjesus.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One JSON object per line: timestamp, level, logger, thread, formatted message, every MDC entry
+ * (including requestId) and the stack trace if there is one. Runs on the async appender's worker
+ * thread, never on a request thread.
+ */
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+    
+    private static final byte[] NO_BYTES = new byte[0];
+    
+    @Override
+    public byte[] headerBytes() {
+        return NO_BYTES;
+    }
+    
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        StringBuilder json = new StringBuilder(256);
+        json.append('{');
+        field(json, "timestamp", Instant.ofEpochMilli(event.getTimeStamp()).toString());
+        json.append(',');
+        field(json, "level", event.getLevel().toString());
+        json.append(',');
+        field(json, "logger", event.getLoggerName());
+        json.append(',');
+        field(json, "thread", event.getThreadName());
+        for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+            json.append(',');
+            field(json, entry.getKey(), entry.getValue());
+        }
+        json.append(',');
+        field(json, "message", event.getFormattedMessage());
+        if (event.getThrowableProxy() != null) {
+            json.append(',');
+            field(json, "exception", ThrowableProxyUtil.asString(event.getThrowableProxy()));
+        }
+        json.append("}\n");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public byte[] footerBytes() {
+        return NO_BYTES;
+    }
+    
+    private static void field(StringBuilder json, String name, String value) {
+        json.append('"');
+        escape(json, name);
+        json.append("\":");
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        escape(json, value);
+        json.append('"');
+    }
+    
+    private static void escape(StringBuilder json, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.infantjesus.logging;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import java.util.Map;
+
+/**
+ * Carries the submitting thread's MDC (and so its request id) into tasks run on an executor
+ */
+public class MdcTaskDecorator implements TaskDecorator {
+    
+    @Override
+    public Runnable decorate(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            MDC.setContextMap(context);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    MDC.setContextMap(previous);
+                } else {
+                    MDC.clear();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,255 @@
+package com.infantjesus.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import javax.sql.DataSource;
+
+/**
+ * JDK dynamic proxies around the DataSource and the connections, statements and result sets it hands
+ * out. Every execute call and every ResultSet.next() is timed into the current {@link SqlStats};
+ * everything else is passed straight through, including unwrap() to the driver's own types.
+ * Prepared statements also remember their bind values so a {@link StatementListener} can see them.
+ */
+public final class JdbcStatsProxy {
+    
+    /**
+     * Called after every execute with the statement's SQL, its first bindCount bind values (parameter 1
+     * at index 0) and how long it took; the binds array is reused by the statement, so copy anything kept
+     */
+    @FunctionalInterface
+    public interface StatementListener {
+        void onStatement(String sql, Object[] binds, int bindCount, long elapsedNanos);
+    }
+    
+    /**
+     * Bind value recorded for setNull(index, sqlType)
+     */
+    public static final class NullBind {
+        
+        private final int sqlType;
+        
+        NullBind(int sqlType) {
+            this.sqlType = sqlType;
+        }
+        
+        public int getSqlType() {
+            return sqlType;
+        }
+        
+        @Override
+        public String toString() {
+            return "NULL";
+        }
+    }
+    
+    private static final Object[] NO_BINDS = new Object[0];
+    
+    private JdbcStatsProxy() {
+    }
+    
+    public static DataSource wrap(DataSource dataSource, StatementListener listener) {
+        return proxy(DataSource.class, new DataSourceHandler(dataSource, listener));
+    }
+    
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(JdbcStatsProxy.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+    
+    private abstract static class Delegating implements InvocationHandler {
+        
+        final Object target;
+        
+        Delegating(Object target) {
+            this.target = target;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(target)) {
+                        return target;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(target)) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            return intercept(proxy, method, args);
+        }
+        
+        Object intercept(Object proxy, Method method, Object[] args) throws Throwable {
+            return call(method, args);
+        }
+        
+        final Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+    
+    private static final class DataSourceHandler extends Delegating {
+        
+        private final StatementListener listener;
+        
+        DataSourceHandler(DataSource target, StatementListener listener) {
+            super(target);
+            this.listener = listener;
+        }
+        
+        @Override
+        Object intercept(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, new ConnectionHandler(connection, listener));
+            }
+            return result;
+        }
+    }
+    
+    private static final class ConnectionHandler extends Delegating {
+        
+        private final StatementListener listener;
+        
+        ConnectionHandler(Connection target, StatementListener listener) {
+            super(target);
+            this.listener = listener;
+        }
+        
+        @Override
+        Object intercept(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            switch (method.getName()) {
+                case "prepareCall":
+                    return proxy(CallableStatement.class, new StatementHandler(result, (String) args[0], listener));
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class, new StatementHandler(result, (String) args[0], listener));
+                case "createStatement":
+                    return proxy(Statement.class, new StatementHandler(result, null, listener));
+                default:
+                    return result;
+            }
+        }
+    }
+    
+    private static final class StatementHandler extends Delegating {
+        
+        private final String preparedSql;
+        private final StatementListener listener;
+        private Object[] binds = NO_BINDS;
+        private int bindCount;
+        
+        StatementHandler(Object target, String preparedSql, StatementListener listener) {
+            super(target);
+            this.preparedSql = preparedSql;
+            this.listener = listener;
+        }
+        
+        @Override
+        Object intercept(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getResultSet")) {
+                return wrapResultSet(call(method, args));
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                // setString(1, ...), setNull(2, Types.BIGINT), ... on a prepared statement
+                bind(index, name.equals("setNull") ? new NullBind((Integer) args[1]) : args[1]);
+                return call(method, args);
+            }
+            if (name.equals("clearParameters")) {
+                Arrays.fill(binds, null);
+                bindCount = 0;
+                return call(method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return call(method, args);
+            }
+            
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            long start = System.nanoTime();
+            Object result = call(method, args);
+            long elapsed = System.nanoTime() - start;
+            SqlStats.recordStatement(sql, elapsed, affectedRows(result));
+            if (listener != null) {
+                listener.onStatement(sql, binds, sql == preparedSql ? bindCount : 0, elapsed);
+            }
+            return wrapResultSet(result);
+        }
+        
+        private void bind(int index, Object value) {
+            if (index < 1 || index > 65535) {
+                return;
+            }
+            if (index > binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(index, binds.length * 2));
+            }
+            binds[index - 1] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+        
+        private static long affectedRows(Object result) {
+            if (result instanceof Integer count) {
+                return count;
+            }
+            if (result instanceof Long count) {
+                return count;
+            }
+            long total = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    total += Math.max(0, count);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    total += Math.max(0, count);
+                }
+            }
+            // Rows read by a query are counted as they are fetched
+            return total;
+        }
+        
+        private static Object wrapResultSet(Object result) {
+            if (result instanceof ResultSet resultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet));
+            }
+            return result;
+        }
+    }
+    
+    private static final class ResultSetHandler extends Delegating {
+        
+        ResultSetHandler(ResultSet target) {
+            super(target);
+        }
+        
+        @Override
+        Object intercept(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().equals("next")) {
+                return call(method, args);
+            }
+            long start = System.nanoTime();
+            Object result = call(method, args);
+            SqlStats.recordFetch(System.nanoTime() - start, Boolean.TRUE.equals(result));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.infantjesus.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear latency histogram in microseconds, in the style of HdrHistogram: every power of
+ * two is split into 16 linear sub-buckets, so a reported percentile is within 1/16 (6.25%) of the true
+ * value from 1 µs up to about 25 days. Recording is one atomic increment plus a max update.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 40;
+    static final int BUCKETS = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+    
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(index(value));
+        max.accumulateAndGet(value, Math::max);
+    }
+    
+    /**
+     * Point-in-time copy; recordings that race with it land in either this copy or the next one
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, max.get());
+    }
+    
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKETS - 1;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+    
+    /**
+     * Largest value that maps to the given bucket
+     */
+    static long highestEquivalent(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowest = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+    
+    /**
+     * Immutable bucket counts that can be merged and queried for percentiles
+     */
+    public static class Snapshot {
+        
+        private final long[] counts;
+        private final long total;
+        private final long max;
+        
+        Snapshot(long[] counts, long total, long max) {
+            this.counts = counts;
+            this.total = total;
+            this.max = max;
+        }
+        
+        public Snapshot merge(Snapshot other) {
+            long[] merged = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                merged[i] = counts[i] + other.counts[i];
+            }
+            return new Snapshot(merged, total + other.total, Math.max(max, other.max));
+        }
+        
+        public long getTotal() {
+            return total;
+        }
+        
+        public long getMax() {
+            return max;
+        }
+        
+        /**
+         * Value in microseconds at or below which the given fraction (0..1) of recordings fall
+         */
+        public long percentile(double fraction) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestEquivalent(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
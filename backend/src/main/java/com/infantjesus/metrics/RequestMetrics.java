@@ -0,0 +1,174 @@
+package com.infantjesus.metrics;
+
+import com.infantjesus.logging.BoundedAsyncAppender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-route request metrics recorded by PerformanceInterceptor, exported in the Prometheus text format.
+ * Routes are keyed by their mapping template (e.g. /events/{id}), never the raw URI, so the number of
+ * series stays bounded; anything past the route limit is folded into a single "other" route.
+ */
+@Component
+public class RequestMetrics {
+    
+    static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    
+    private static final String OTHER = "other";
+    
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+    
+    @Value("${app.metrics.max-routes:256}")
+    private int maxRoutes;
+    
+    @Value("${app.metrics.window:PT1M}")
+    private String window;
+    
+    public RouteMetrics route(String method, String route) {
+        String key = method + " " + route;
+        RouteMetrics metrics = routes.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (routes.size() >= maxRoutes) {
+            return routes.computeIfAbsent(OTHER, k -> new RouteMetrics(OTHER, OTHER));
+        }
+        return routes.computeIfAbsent(key, k -> new RouteMetrics(method, route));
+    }
+    
+    /**
+     * Start a new percentile interval; the one before it stays in the window until the next rotation
+     */
+    @Scheduled(fixedRateString = "${app.metrics.window:PT1M}")
+    public void rotate() {
+        routes.values().forEach(RouteMetrics::rotate);
+    }
+    
+    /**
+     * Per-route summary in milliseconds, slowest p99 first
+     */
+    public List<Map<String, Object>> summary() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (RouteMetrics metrics : sortedRoutes()) {
+            LatencyHistogram.Snapshot snapshot = metrics.window();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("method", metrics.getMethod());
+            row.put("route", metrics.getRoute());
+            row.put("count", metrics.getCount());
+            row.put("clientErrors", metrics.getClientErrors());
+            row.put("serverErrors", metrics.getServerErrors());
+            row.put("inFlight", metrics.getInFlight());
+            row.put("windowCount", snapshot.getTotal());
+            row.put("p50Ms", snapshot.percentile(0.5) / 1000.0);
+            row.put("p95Ms", snapshot.percentile(0.95) / 1000.0);
+            row.put("p99Ms", snapshot.percentile(0.99) / 1000.0);
+            row.put("maxMs", snapshot.getMax() / 1000.0);
+            row.put("sqlStatements", metrics.getSqlStatements());
+            row.put("sqlRows", metrics.getSqlRows());
+            row.put("sqlMs", metrics.getSqlMicros() / 1000.0);
+            row.put("overQueryBudget", metrics.getOverQueryBudget());
+            row.put("repeatedStatements", metrics.getRepeatedStatements());
+            rows.add(row);
+        }
+        rows.sort(Comparator.comparingDouble((Map<String, Object> row) -> (Double) row.get("p99Ms")).reversed());
+        return rows;
+    }
+    
+    /**
+     * Prometheus text exposition format 0.0.4
+     */
+    public String prometheus() {
+        List<RouteMetrics> sorted = sortedRoutes();
+        Map<RouteMetrics, LatencyHistogram.Snapshot> windows = new LinkedHashMap<>();
+        sorted.forEach(metrics -> windows.put(metrics, metrics.window()));
+        StringBuilder out = new StringBuilder(256 + sorted.size() * 512);
+        
+        header(out, "http_server_requests_seconds", "summary",
+                "Request latency by route; quantiles cover the last one to two " + window + " intervals");
+        windows.forEach((metrics, snapshot) -> {
+            for (double quantile : QUANTILES) {
+                sample(out, "http_server_requests_seconds", metrics, "quantile=\"" + quantile + "\"",
+                        seconds(snapshot.percentile(quantile)));
+            }
+        });
+        for (RouteMetrics metrics : sorted) {
+            sample(out, "http_server_requests_seconds_count", metrics, null, Long.toString(metrics.getCount()));
+            sample(out, "http_server_requests_seconds_sum", metrics, null, seconds(metrics.getTotalMicros()));
+        }
+        
+        header(out, "http_server_requests_max_seconds", "gauge", "Slowest request by route in the current window");
+        windows.forEach((metrics, snapshot) ->
+                sample(out, "http_server_requests_max_seconds", metrics, null, seconds(snapshot.getMax())));
+        
+        header(out, "http_server_requests_errors_total", "counter", "Requests that ended with a 4xx or 5xx status");
+        for (RouteMetrics metrics : sorted) {
+            sample(out, "http_server_requests_errors_total", metrics, "class=\"4xx\"", Long.toString(metrics.getClientErrors()));
+            sample(out, "http_server_requests_errors_total", metrics, "class=\"5xx\"", Long.toString(metrics.getServerErrors()));
+        }
+        
+        header(out, "http_server_requests_in_flight", "gauge", "Requests currently being handled");
+        for (RouteMetrics metrics : sorted) {
+            sample(out, "http_server_requests_in_flight", metrics, null, Integer.toString(metrics.getInFlight()));
+        }
+        
+        header(out, "http_server_requests_db_statements_total", "counter", "JDBC statements executed by requests");
+        for (RouteMetrics metrics : sorted) {
+            sample(out, "http_server_requests_db_statements_total", metrics, null, Long.toString(metrics.getSqlStatements()));
+        }
+        header(out, "http_server_requests_db_rows_total", "counter", "Rows read or written by requests");
+        for (RouteMetrics metrics : sorted) {
+            sample(out, "http_server_requests_db_rows_total", metrics, null, Long.toString(metrics.getSqlRows()));
+        }
+        header(out, "http_server_requests_db_seconds_total", "counter", "Time requests spent in JDBC calls");
+        for (RouteMetrics metrics : sorted) {
+            sample(out, "http_server_requests_db_seconds_total", metrics, null, seconds(metrics.getSqlMicros()));
+        }
+        header(out, "http_server_requests_db_flagged_total", "counter",
+                "Requests over the query budget or repeating one statement shape (likely N+1)");
+        for (RouteMetrics metrics : sorted) {
+            sample(out, "http_server_requests_db_flagged_total", metrics, "reason=\"budget\"", Long.toString(metrics.getOverQueryBudget()));
+            sample(out, "http_server_requests_db_flagged_total", metrics, "reason=\"repeated\"", Long.toString(metrics.getRepeatedStatements()));
+        }
+        
+        header(out, "logging_events_dropped_total", "counter", "Log events dropped because the async log queue was full");
+        out.append("logging_events_dropped_total ").append(BoundedAsyncAppender.getDroppedEvents()).append('\n');
+        return out.toString();
+    }
+    
+    private List<RouteMetrics> sortedRoutes() {
+        List<RouteMetrics> sorted = new ArrayList<>(routes.values());
+        sorted.sort(Comparator.comparing(RouteMetrics::getRoute).thenComparing(RouteMetrics::getMethod));
+        return sorted;
+    }
+    
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+    
+    private static void sample(StringBuilder out, String name, RouteMetrics metrics, String extraLabel, String value) {
+        out.append(name)
+                .append("{method=\"").append(escape(metrics.getMethod()))
+                .append("\",route=\"").append(escape(metrics.getRoute())).append('"');
+        if (extraLabel != null) {
+            out.append(',').append(extraLabel);
+        }
+        out.append("} ").append(value).append('\n');
+    }
+    
+    private static String seconds(long micros) {
+        return String.format(Locale.ROOT, "%.6f", micros / 1_000_000.0);
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,129 @@
+package com.infantjesus.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one route template. Totals are cumulative; latency percentiles cover a sliding window
+ * made of the current and the previous interval, rotated by {@link RequestMetrics}.
+ */
+public class RouteMetrics {
+    
+    private final String method;
+    private final String route;
+    
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    private final LongAdder sqlStatements = new LongAdder();
+    private final LongAdder sqlRows = new LongAdder();
+    private final LongAdder sqlMicros = new LongAdder();
+    private final LongAdder overQueryBudget = new LongAdder();
+    private final LongAdder repeatedStatements = new LongAdder();
+    
+    private final AtomicReference<LatencyHistogram> current = new AtomicReference<>(new LatencyHistogram());
+    private volatile LatencyHistogram previous = new LatencyHistogram();
+    
+    public RouteMetrics(String method, String route) {
+        this.method = method;
+        this.route = route;
+    }
+    
+    public void started() {
+        inFlight.incrementAndGet();
+    }
+    
+    /**
+     * The request is leaving the servlet thread without being recorded (async streaming responses)
+     */
+    public void abandoned() {
+        inFlight.decrementAndGet();
+    }
+    
+    public void completed(long micros, int status, boolean failed) {
+        inFlight.decrementAndGet();
+        count.increment();
+        totalMicros.add(micros);
+        if (failed || status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        }
+        current.get().record(micros);
+    }
+    
+    /**
+     * Add one request's SQL totals and whether it broke the query budget or repeated a statement shape
+     */
+    public void recordSql(SqlStats stats, boolean overBudget, boolean repeated) {
+        sqlStatements.add(stats.getStatements());
+        sqlRows.add(stats.getRows());
+        sqlMicros.add(stats.getMicros());
+        if (overBudget) {
+            overQueryBudget.increment();
+        }
+        if (repeated) {
+            repeatedStatements.increment();
+        }
+    }
+    
+    void rotate() {
+        previous = current.getAndSet(new LatencyHistogram());
+    }
+    
+    public LatencyHistogram.Snapshot window() {
+        return previous.snapshot().merge(current.get().snapshot());
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public String getRoute() {
+        return route;
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public long getTotalMicros() {
+        return totalMicros.sum();
+    }
+    
+    public long getClientErrors() {
+        return clientErrors.sum();
+    }
+    
+    public long getServerErrors() {
+        return serverErrors.sum();
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public long getSqlStatements() {
+        return sqlStatements.sum();
+    }
+    
+    public long getSqlRows() {
+        return sqlRows.sum();
+    }
+    
+    public long getSqlMicros() {
+        return sqlMicros.sum();
+    }
+    
+    public long getOverQueryBudget() {
+        return overQueryBudget.sum();
+    }
+    
+    public long getRepeatedStatements() {
+        return repeatedStatements.sum();
+    }
+}
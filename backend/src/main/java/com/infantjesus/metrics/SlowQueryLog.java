@@ -0,0 +1,310 @@
+package com.infantjesus.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring buffer of the most recent statements slower than app.slow-query.threshold, with their bind values
+ * when app.slow-query.capture-binds is on, and, for a sample of SELECTs, an EXPLAIN (ANALYZE, BUFFERS)
+ * plan captured in the background. The plan is taken in a read-only transaction that is always rolled
+ * back, at most once per statement shape per cooldown, on a single thread whose queue drops work rather
+ * than pile it up.
+ */
+@Component
+public class SlowQueryLog {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+    
+    private static final int MAX_BIND_LENGTH = 120;
+    
+    // The DataSource is wrapped by JdbcStatsProxy, which calls back into this class
+    @Autowired
+    @Lazy
+    private DataSource dataSource;
+    
+    @Value("${app.slow-query.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.slow-query.threshold:PT0.2S}")
+    private Duration threshold;
+    
+    @Value("${app.slow-query.capacity:100}")
+    private int capacity;
+    
+    @Value("${app.slow-query.capture-binds:false}")
+    private boolean captureBinds;
+    
+    @Value("${app.slow-query.explain-sample-rate:0.1}")
+    private double explainSampleRate;
+    
+    @Value("${app.slow-query.explain-cooldown:PT10M}")
+    private Duration explainCooldown;
+    
+    @Value("${app.slow-query.explain-timeout:PT10S}")
+    private Duration explainTimeout;
+    
+    private final AtomicLong sequence = new AtomicLong();
+    
+    private AtomicReferenceArray<SlowQuery> entries;
+    private long thresholdNanos;
+    private Cache<String, Boolean> recentlyExplained;
+    private ThreadPoolExecutor explainExecutor;
+    
+    @PostConstruct
+    void init() {
+        entries = new AtomicReferenceArray<>(Math.max(1, capacity));
+        thresholdNanos = threshold.toNanos();
+        recentlyExplained = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(explainCooldown)
+                .build();
+        explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), runnable -> {
+            Thread thread = new Thread(runnable, "SlowQueryExplain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+    
+    /**
+     * Record a statement if it was slow; called by JdbcStatsProxy after every execute
+     */
+    public void onStatement(String sql, Object[] binds, int bindCount, long elapsedNanos) {
+        if (!enabled || elapsedNanos < thresholdNanos || sql == null) {
+            return;
+        }
+        // The plan capture itself runs as long as the query did; never record or explain it
+        if (sql.regionMatches(true, 0, "EXPLAIN", 0, 7)) {
+            return;
+        }
+        
+        String shape = SqlStats.shape(sql);
+        boolean redact = sql.toLowerCase(Locale.ROOT).contains("password");
+        long id = sequence.incrementAndGet();
+        SlowQuery entry = new SlowQuery(id, shape, captureBinds ? renderBinds(binds, bindCount, redact) : null,
+                elapsedNanos / 1000, currentRequest());
+        entries.set((int) (id % entries.length()), entry);
+        logger.warn("SLOW QUERY: {}ms in {}: {}", elapsedNanos / 1_000_000, entry.getRequest(), shape);
+        
+        if (isExplainable(sql) && !redact
+                && ThreadLocalRandom.current().nextDouble() < explainSampleRate
+                && recentlyExplained.asMap().putIfAbsent(shape, Boolean.TRUE) == null) {
+            Object[] replay = Arrays.copyOf(binds, bindCount);
+            entry.setPlanStatus("PENDING");
+            try {
+                explainExecutor.execute(() -> explain(entry, sql, replay));
+            } catch (RejectedExecutionException e) {
+                entry.setPlanStatus("SKIPPED");
+            }
+        }
+    }
+    
+    /**
+     * Recorded statements, newest first
+     */
+    public List<SlowQuery> getEntries(int limit) {
+        List<SlowQuery> result = new ArrayList<>();
+        long newest = sequence.get();
+        for (long id = newest; id > 0 && id > newest - entries.length() && result.size() < limit; id--) {
+            SlowQuery entry = entries.get((int) (id % entries.length()));
+            // A slot may already hold a newer entry than the id being looked for
+            if (entry != null && entry.getId() == id) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, null);
+        }
+        recentlyExplained.invalidateAll();
+    }
+    
+    /**
+     * Only plain SELECTs: ANALYZE really executes the statement
+     */
+    private static boolean isExplainable(String sql) {
+        String trimmed = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return trimmed.startsWith("select") && !trimmed.contains(" for update") && !trimmed.contains(" for share");
+    }
+    
+    private void explain(SlowQuery entry, String sql, Object[] binds) {
+        try (Connection connection = dataSource.unwrap(DataSource.class).getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    // Belt and braces: the server itself refuses any write this plan might attempt
+                    statement.execute("SET TRANSACTION READ ONLY");
+                    statement.execute("SET LOCAL statement_timeout = " + explainTimeout.toMillis());
+                }
+                try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                    for (int i = 0; i < binds.length; i++) {
+                        Object value = binds[i];
+                        if (value instanceof JdbcStatsProxy.NullBind nullBind) {
+                            explain.setNull(i + 1, nullBind.getSqlType());
+                        } else if (value instanceof InputStream || value instanceof Reader
+                                || value instanceof Blob || value instanceof Clob) {
+                            entry.setPlanStatus("SKIPPED");
+                            entry.setPlan("Bind " + (i + 1) + " is a stream and cannot be replayed");
+                            return;
+                        } else {
+                            explain.setObject(i + 1, value);
+                        }
+                    }
+                    StringBuilder plan = new StringBuilder();
+                    try (ResultSet rows = explain.executeQuery()) {
+                        while (rows.next()) {
+                            plan.append(rows.getString(1)).append('\n');
+                        }
+                    }
+                    entry.setPlan(plan.toString());
+                    entry.setPlanStatus("CAPTURED");
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | RuntimeException e) {
+            entry.setPlanStatus("FAILED");
+            entry.setPlan(e.getMessage());
+            logger.debug("EXPLAIN failed for slow query {}: {}", entry.getId(), e.getMessage());
+        }
+    }
+    
+    private static List<String> renderBinds(Object[] binds, int count, boolean redact) {
+        List<String> rendered = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Object value = binds[i];
+            if (redact) {
+                rendered.add("<redacted>");
+            } else if (value == null || value instanceof JdbcStatsProxy.NullBind) {
+                rendered.add("NULL");
+            } else if (value instanceof byte[] bytes) {
+                rendered.add("<" + bytes.length + " bytes>");
+            } else if (value instanceof InputStream || value instanceof Reader || value instanceof Blob || value instanceof Clob) {
+                rendered.add("<stream>");
+            } else {
+                String text = value.toString();
+                if (text.length() > MAX_BIND_LENGTH) {
+                    text = text.substring(0, MAX_BIND_LENGTH) + "...";
+                }
+                rendered.add(value instanceof CharSequence ? "'" + text + "'" : text);
+            }
+        }
+        return rendered;
+    }
+    
+    private static String currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            return request.getMethod() + " " + request.getRequestURI();
+        }
+        return Thread.currentThread().getName();
+    }
+    
+    /**
+     * One recorded slow statement; the plan fields are filled in later by the EXPLAIN thread
+     */
+    public static class SlowQuery {
+        
+        private final long id;
+        private final LocalDateTime recordedAt = LocalDateTime.now();
+        private final String sql;
+        private final List<String> binds;
+        private final long elapsedMicros;
+        private final String request;
+        private volatile String planStatus = "NONE";
+        private volatile String plan;
+        
+        SlowQuery(long id, String sql, List<String> binds, long elapsedMicros, String request) {
+            this.id = id;
+            this.sql = sql;
+            this.binds = binds;
+            this.elapsedMicros = elapsedMicros;
+            this.request = request;
+        }
+        
+        public long getId() {
+            return id;
+        }
+        
+        public LocalDateTime getRecordedAt() {
+            return recordedAt;
+        }
+        
+        public String getSql() {
+            return sql;
+        }
+        
+        public List<String> getBinds() {
+            return binds;
+        }
+        
+        public double getElapsedMs() {
+            return elapsedMicros / 1000.0;
+        }
+        
+        public String getRequest() {
+            return request;
+        }
+        
+        public String getPlanStatus() {
+            return planStatus;
+        }
+        
+        void setPlanStatus(String planStatus) {
+            this.planStatus = planStatus;
+        }
+        
+        public String getPlan() {
+            return plan;
+        }
+        
+        void setPlan(String plan) {
+            this.plan = plan;
+        }
+    }
+}
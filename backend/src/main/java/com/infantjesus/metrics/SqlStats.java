@@ -0,0 +1,110 @@
+package com.infantjesus.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * SQL work done on the current thread during one HTTP request: statements, rows and time spent in
+ * JDBC calls, plus how often each statement shape ran. Filled in by {@link JdbcStatsProxy} while
+ * {@link SqlStatsFilter} has a scope open; work on other threads (async tasks) is not attributed.
+ */
+public final class SqlStats {
+    
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+    
+    /** Distinct shapes tracked per request; enough for any real request, bounded for a pathological one */
+    private static final int MAX_SHAPES = 256;
+    
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    private int statements;
+    private long rows;
+    private long nanos;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private String mostRepeatedShape;
+    private int mostRepeatedCount;
+    
+    private SqlStats() {
+    }
+    
+    static SqlStats begin() {
+        SqlStats stats = new SqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+    
+    static void end() {
+        CURRENT.remove();
+    }
+    
+    /**
+     * Stats of the request running on this thread, or null outside a request
+     */
+    public static SqlStats current() {
+        return CURRENT.get();
+    }
+    
+    static void recordStatement(String sql, long elapsedNanos, long affectedRows) {
+        SqlStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        stats.statements++;
+        stats.nanos += elapsedNanos;
+        stats.rows += Math.max(0, affectedRows);
+        if (sql == null) {
+            return;
+        }
+        String shape = shape(sql);
+        if (stats.shapes.size() < MAX_SHAPES || stats.shapes.containsKey(shape)) {
+            int count = stats.shapes.merge(shape, 1, Integer::sum);
+            if (count > stats.mostRepeatedCount) {
+                stats.mostRepeatedCount = count;
+                stats.mostRepeatedShape = shape;
+            }
+        }
+    }
+    
+    static void recordFetch(long elapsedNanos, boolean gotRow) {
+        SqlStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        stats.nanos += elapsedNanos;
+        if (gotRow) {
+            stats.rows++;
+        }
+    }
+    
+    /**
+     * Statement text with literals and IN-list lengths erased, so repeats of one query compare equal
+     */
+    static String shape(String sql) {
+        String shape = LITERALS.matcher(sql).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+    
+    public int getStatements() {
+        return statements;
+    }
+    
+    public long getRows() {
+        return rows;
+    }
+    
+    public long getMicros() {
+        return nanos / 1000;
+    }
+    
+    public String getMostRepeatedShape() {
+        return mostRepeatedShape;
+    }
+    
+    public int getMostRepeatedCount() {
+        return mostRepeatedCount;
+    }
+}
@@ -0,0 +1,31 @@
+package com.infantjesus.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/**
+ * Opens a {@link SqlStats} scope around the whole request, ahead of Spring Security, so the
+ * authentication filter's lookups are counted along with the controller's queries
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlStatsFilter extends OncePerRequestFilter {
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStats.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStats.end();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.infantjesus.repository;
+
+import com.infantjesus.entity.AnnouncementBroadcast;
+import com.infantjesus.entity.BroadcastStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AnnouncementBroadcastRepository extends JpaRepository<AnnouncementBroadcast, Long> {
+    
+    /**
+     * Ids of broadcasts in the given state, oldest first
+     */
+    @Query("SELECT b.id FROM AnnouncementBroadcast b WHERE b.status = :status ORDER BY b.id")
+    List<Long> findIdsByStatus(@Param("status") BroadcastStatus status);
+    
+    /**
+     * Load a broadcast with a row lock so only one server advances it at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AnnouncementBroadcast b WHERE b.id = :id")
+    Optional<AnnouncementBroadcast> lockById(@Param("id") Long id);
+    
+    List<AnnouncementBroadcast> findByAnnouncementIdOrderByIdDesc(Long announcementId);
+    
+    Optional<AnnouncementBroadcast> findFirstByAnnouncementIdAndStatus(Long announcementId, BroadcastStatus status);
+    
+    boolean existsByAnnouncementId(Long announcementId);
+}
@@ -1,8 +1,12 @@
 package com.infantjesus.repository;
 
 import com.infantjesus.entity.Announcement;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,6 +17,21 @@ public interface AnnouncementRepository extends JpaRepository<Announcement, Long
      */
     List<Announcement> findByIsActiveTrueOrderByCreatedAtDesc();
     
+    /**
+     * First keyset page of active announcements, ordered by (createdAt, id) descending
+     */
+    List<Announcement> findByIsActiveTrueOrderByCreatedAtDescIdDesc(Pageable pageable);
+    
+    /**
+     * Keyset page of active announcements strictly after the given (createdAt, id) position
+     */
+    @Query("SELECT a FROM Announcement a WHERE a.isActive = true AND (a.createdAt < :createdAt " +
+           "OR (a.createdAt = :createdAt AND a.id < :id)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Announcement> findActivePageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+    
     /**
      * Find all announcements ordered by creation date (latest first)
      */
@@ -29,7 +48,20 @@ public interface AnnouncementRepository extends JpaRepository<Announcement, Long
     List<Announcement> findByIsActiveTrueAndPriorityOrderByCreatedAtDesc(String priority);
     
     /**
-     * Find announcements by title containing the given keyword
+     * Weighted full-text document over title (A) and message (B); kept identical to the GIN index expression
+     */
+    String SEARCH_VECTOR = "(setweight(to_tsvector('english', coalesce(title, '')), 'A') || " +
+                           "setweight(to_tsvector('english', coalesce(message, '')), 'B'))";
+    
+    /**
+     * Full-text search over announcement titles and messages, best match first
      */
-    List<Announcement> findByTitleContainingIgnoreCase(String keyword);
+    @Query(value = "SELECT t.* FROM announcements t, websearch_to_tsquery('english', :keyword) q " +
+                   "WHERE " + SEARCH_VECTOR + " @@ q " +
+                   "ORDER BY ts_rank(" + SEARCH_VECTOR + ", q) DESC, t.created_at DESC, t.id DESC " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Announcement> search(@Param("keyword") String keyword,
+                              @Param("limit") int limit,
+                              @Param("offset") int offset);
 }
@@ -1,9 +1,16 @@
 package com.infantjesus.repository;
 
 import com.infantjesus.entity.Event;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
@@ -13,8 +20,66 @@ public interface EventRepository extends JpaRepository<Event, Long> {
      */
     List<Event> findAllByOrderByCreatedAtDesc();
     
+    /**
+     * First keyset page of events, ordered by (createdAt, id) descending
+     */
+    List<Event> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+    
+    /**
+     * Keyset page of events strictly after the given (createdAt, id) position
+     */
+    @Query("SELECT e FROM Event e WHERE (e.createdAt < :createdAt " +
+           "OR (e.createdAt = :createdAt AND e.id < :id)) " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    List<Event> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                              @Param("id") Long id,
+                              Pageable pageable);
+    
     /**
      * Find events by title containing the given keyword
      */
     List<Event> findByTitleContainingIgnoreCase(String keyword);
+    
+    /**
+     * Number of events pointing at the given uploaded image
+     */
+    long countByImageUrl(String imageUrl);
+    
+    /**
+     * Load an event and hold its row lock until the transaction ends, so edits and upload completions apply one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id = :id")
+    Optional<Event> lockById(@Param("id") Long id);
+    
+    /**
+     * Events whose image upload has been pending since before the cutoff (or since before the column existed)
+     */
+    @Query("SELECT e FROM Event e WHERE e.imageStatus = com.infantjesus.entity.ImageStatus.PENDING " +
+           "AND (e.imagePendingSince IS NULL OR e.imagePendingSince < :cutoff)")
+    List<Event> findStalePendingImages(@Param("cutoff") LocalDateTime cutoff);
+    
+    /**
+     * Every image URL currently referenced by an event
+     */
+    @Query("SELECT DISTINCT e.imageUrl FROM Event e WHERE e.imageUrl IS NOT NULL")
+    List<String> findReferencedImageUrls();
+    
+    /**
+     * Weighted full-text document over title (A) and description (B); kept identical to the GIN index expression
+     */
+    String SEARCH_VECTOR = "(setweight(to_tsvector('english', coalesce(title, '')), 'A') || " +
+                           "setweight(to_tsvector('english', coalesce(description, '')), 'B'))";
+    
+    /**
+     * Full-text search over event titles and descriptions, best match first
+     */
+    @Query(value = "SELECT t.* FROM events t, websearch_to_tsquery('english', :keyword) q " +
+                   "WHERE " + SEARCH_VECTOR + " @@ q " +
+                   "ORDER BY ts_rank(" + SEARCH_VECTOR + ", q) DESC, t.created_at DESC, t.id DESC " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Event> search(@Param("keyword") String keyword,
+                       @Param("limit") int limit,
+                       @Param("offset") int offset);
 }
@@ -1,9 +1,16 @@
 package com.infantjesus.repository;
 
 import com.infantjesus.entity.Facility;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FacilityRepository extends JpaRepository<Facility, Long> {
@@ -14,12 +21,60 @@ public interface FacilityRepository extends JpaRepository<Facility, Long> {
     List<Facility> findAllByOrderByCreatedAtDesc();
     
     /**
-     * Find facilities by name containing the given keyword
+     * First keyset page of facilities, ordered by (createdAt, id) descending
      */
-    List<Facility> findByNameContainingIgnoreCase(String keyword);
+    List<Facility> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
     
     /**
-     * Find facilities by description containing the given keyword
+     * Keyset page of facilities strictly after the given (createdAt, id) position
      */
-    List<Facility> findByDescriptionContainingIgnoreCase(String keyword);
+    @Query("SELECT f FROM Facility f WHERE (f.createdAt < :createdAt " +
+           "OR (f.createdAt = :createdAt AND f.id < :id)) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Facility> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
+    
+    /**
+     * Number of facilities pointing at the given uploaded image
+     */
+    long countByImageUrl(String imageUrl);
+    
+    /**
+     * Load a facility and hold its row lock until the transaction ends, so edits and upload completions apply one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM Facility f WHERE f.id = :id")
+    Optional<Facility> lockById(@Param("id") Long id);
+    
+    /**
+     * Facilities whose image upload has been pending since before the cutoff (or since before the column existed)
+     */
+    @Query("SELECT f FROM Facility f WHERE f.imageStatus = com.infantjesus.entity.ImageStatus.PENDING " +
+           "AND (f.imagePendingSince IS NULL OR f.imagePendingSince < :cutoff)")
+    List<Facility> findStalePendingImages(@Param("cutoff") LocalDateTime cutoff);
+    
+    /**
+     * Every image URL currently referenced by a facility
+     */
+    @Query("SELECT DISTINCT f.imageUrl FROM Facility f WHERE f.imageUrl IS NOT NULL")
+    List<String> findReferencedImageUrls();
+    
+    /**
+     * Weighted full-text document over name (A) and description (B); kept identical to the GIN index expression
+     */
+    String SEARCH_VECTOR = "(setweight(to_tsvector('english', coalesce(name, '')), 'A') || " +
+                           "setweight(to_tsvector('english', coalesce(description, '')), 'B'))";
+    
+    /**
+     * Full-text search over facility names and descriptions, best match first
+     */
+    @Query(value = "SELECT t.* FROM facilities t, websearch_to_tsquery('english', :keyword) q " +
+                   "WHERE " + SEARCH_VECTOR + " @@ q " +
+                   "ORDER BY ts_rank(" + SEARCH_VECTOR + ", q) DESC, t.created_at DESC, t.id DESC " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Facility> search(@Param("keyword") String keyword,
+                          @Param("limit") int limit,
+                          @Param("offset") int offset);
 }
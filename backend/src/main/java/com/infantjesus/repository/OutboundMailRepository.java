@@ -0,0 +1,39 @@
+package com.infantjesus.repository;
+
+import com.infantjesus.entity.MailStatus;
+import com.infantjesus.entity.OutboundMail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboundMailRepository extends JpaRepository<OutboundMail, Long> {
+    
+    /**
+     * Lock up to :limit due messages for this worker; rows locked by other workers are skipped, not waited on.
+     * SENDING rows are included so a worker that died mid-batch has its messages picked up after the lease.
+     */
+    @Query(value = "SELECT * FROM outbound_mail " +
+                   "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at, id " +
+                   "LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboundMail> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    /**
+     * Messages in the given state, newest first
+     */
+    List<OutboundMail> findByStatusOrderByIdDesc(MailStatus status, Pageable pageable);
+    
+    long countByStatus(MailStatus status);
+    
+    /**
+     * Delivery state of a broadcast's messages as (status, count) rows
+     */
+    @Query("SELECT m.status, COUNT(m) FROM OutboundMail m WHERE m.broadcastId = :broadcastId GROUP BY m.status")
+    List<Object[]> countByStatusForBroadcast(@Param("broadcastId") Long broadcastId);
+}
@@ -1,8 +1,10 @@
 package com.infantjesus.repository;
 
 import com.infantjesus.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +13,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    
+    /**
+     * Next batch of users after the given id, for streaming through all users in id order
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
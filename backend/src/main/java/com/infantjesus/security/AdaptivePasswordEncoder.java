@@ -0,0 +1,131 @@
+package com.infantjesus.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt encoder that runs every hash on a small bounded pool instead of the calling request thread,
+ * so a burst of logins or registrations can use at most poolSize cores. When the queue is full, or a
+ * caller waits longer than maxWait, the call fails fast with {@link PasswordHashingBusyException}.
+ *
+ * <p>The work factor is picked at startup as the highest cost whose hash stays within the target latency
+ * on this machine, unless a fixed strength is configured.
+ */
+public class AdaptivePasswordEncoder implements PasswordEncoder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePasswordEncoder.class);
+    
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+    
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitNanos;
+    
+    /**
+     * @param fixedStrength bcrypt cost to use, or 0 to calibrate against targetLatency
+     */
+    public AdaptivePasswordEncoder(int fixedStrength, Duration targetLatency, int poolSize, int queueCapacity, Duration maxWait) {
+        this.strength = fixedStrength > 0 ? fixedStrength : calibrate(targetLatency);
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.maxWaitNanos = maxWait.toNanos();
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "PasswordHash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Password hashing: bcrypt cost {}, {} thread(s), queue {}", strength, poolSize, queueCapacity);
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(submit(() -> delegate.encode(rawPassword)));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+    
+    /**
+     * Stop the hashing pool when the application context closes
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingBusyException("Password hashing is busy, try again shortly", e);
+        }
+    }
+    
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PasswordHashingBusyException("Password hashing timed out, try again shortly", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Highest cost whose hash time stays within the target; each extra cost step doubles the work
+     */
+    private static int calibrate(Duration targetLatency) {
+        long targetNanos = targetLatency.toNanos();
+        int cost = MIN_STRENGTH;
+        // Warm up once so class loading and JIT do not inflate the first measurement
+        new BCryptPasswordEncoder(4).encode("calibration");
+        long measured = time(cost);
+        long elapsed = measured;
+        while (cost < MAX_STRENGTH && elapsed * 2 <= targetNanos) {
+            cost++;
+            elapsed *= 2;
+        }
+        logger.info("Calibrated bcrypt cost {} for a {} ms target ({} ms at cost {})",
+                cost, targetLatency.toMillis(), TimeUnit.NANOSECONDS.toMillis(measured), MIN_STRENGTH);
+        return cost;
+    }
+    
+    private static long time(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long start = System.nanoTime();
+        encoder.encode("calibration-password");
+        return System.nanoTime() - start;
+    }
+}
@@ -1,18 +1,25 @@
 package com.infantjesus.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.infantjesus.entity.Role;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -23,6 +30,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    // Build the principal from the verified role claim instead of loading the account on every request
+    @Value("${app.security.stateless-auth:true}")
+    private boolean statelessAuth;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -30,21 +44,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
         
         String username = null;
-        String jwt = null;
+        Claims claims = null;
         
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                // Verified once per token; repeat requests with the same token hit the claims cache
+                claims = jwtUtil.extractAllClaims(jwt);
+                username = claims.getSubject();
             } catch (Exception e) {
                 // Token is invalid, continue without authentication
             }
         }
         
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && !tokenRevocationService.isRevoked(claims)) {
+            UserDetails userDetails = statelessAuth ? fromClaims(claims) : null;
+            if (userDetails == null) {
+                userDetails = this.userDetailsService.loadUserByUsername(username);
+            }
             
-            if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
+            if (jwtUtil.validateClaims(claims, userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -54,4 +74,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    /**
+     * Principal built from the token alone, or null if the role claim is missing or unknown
+     */
+    private UserDetails fromClaims(Claims claims) {
+        String role = claims.get("role", String.class);
+        if (role == null || Arrays.stream(Role.values()).noneMatch(known -> known.name().equals(role))) {
+            return null;
+        }
+        return new User(claims.getSubject(), "", Collections.singletonList(new SimpleGrantedAuthority(role)));
+    }
 }
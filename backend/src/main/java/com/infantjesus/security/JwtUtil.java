@@ -1,29 +1,117 @@
 package com.infantjesus.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.infantjesus.config.JwtKeyProperties;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+/**
+ * Signs and verifies JWTs. Keys and the parser are built once at startup and shared by all threads;
+ * the kid header selects the verification key so secrets can be rotated without logging everyone out.
+ */
 @Component
 public class JwtUtil {
     
-    @Value("${jwt.secret}")
-    private String secret;
+    @Autowired
+    private JwtKeyProperties keyProperties;
     
     @Value("${jwt.expiration}")
     private Long expiration;
     
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+    
+    /** Verified claims keyed by the SHA-256 of the token, each kept until the token itself expires */
+    private Cache<String, Claims> verifiedClaims;
+    
+    private String activeKid;
+    
+    private Key signingKey;
+    
+    /** Active and retired verification keys by kid */
+    private Map<String, Key> keyring;
+    
+    /** Immutable and thread-safe in jjwt, so one instance serves every request */
+    private JwtParser parser;
+    
+    @PostConstruct
+    void init() {
+        initKeys();
+        initClaimsCache();
+    }
+    
+    private void initKeys() {
+        activeKid = keyProperties.getKid();
+        signingKey = hmacKey(keyProperties.getSecret());
+        Map<String, Key> keys = new HashMap<>();
+        keyProperties.getRetiredSecrets().forEach((kid, retiredSecret) -> keys.put(kid, hmacKey(retiredSecret)));
+        keys.put(activeKid, signingKey);
+        keyring = Map.copyOf(keys);
+        
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // Tokens minted before key ids were introduced carry no kid
+                        if (header.getKeyId() == null) {
+                            return signingKey;
+                        }
+                        Key key = keyring.get(header.getKeyId());
+                        if (key == null) {
+                            throw new JwtException("Unknown signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+    
+    private void initClaimsCache() {
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        return remainingNanos(claims);
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return remainingNanos(claims);
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+    
+    private static Key hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
     
     /**
@@ -33,13 +121,6 @@ public class JwtUtil {
         return extractClaim(token, Claims::getSubject);
     }
     
-    /**
-     * Extract expiration date from token
-     */
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-    
     /**
      * Extract a specific claim from token
      */
@@ -49,21 +130,43 @@ public class JwtUtil {
     }
     
     /**
-     * Extract all claims from token
+     * Verified claims of a token. The signature is checked once per token; later calls are served from the
+     * cache until the token expires. Invalid tokens are never cached.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Claims extractAllClaims(String token) {
+        String digest = digest(token);
+        Claims claims = verifiedClaims.getIfPresent(digest);
+        if (claims != null && !isExpired(claims)) {
+            return claims;
+        }
+        claims = parser.parseClaimsJws(token).getBody();
+        verifiedClaims.put(digest, claims);
+        return claims;
+    }
+    
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
+    }
+    
+    private long remainingNanos(Claims claims) {
+        long remainingMillis = claims.getExpiration() != null
+                ? claims.getExpiration().getTime() - System.currentTimeMillis()
+                : expiration;
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(remainingMillis, expiration)));
     }
     
     /**
-     * Check if token is expired
+     * Cache key for a token; keeps raw bearer tokens out of the heap-resident cache
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
     
     /**
@@ -94,20 +197,21 @@ public class JwtUtil {
      * Create JWT token
      */
     private String createToken(Map<String, Object> claims, String subject) {
+        // JwtBuilder is mutable, so only the pre-built key is shared
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, activeKid)
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
     /**
-     * Validate token
+     * Validate already-verified claims against the expected user
      */
-    public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (username.equals(extractedUsername) && !isTokenExpired(token));
+    public boolean validateClaims(Claims claims, String username) {
+        return username.equals(claims.getSubject()) && !isExpired(claims);
     }
 }
@@ -0,0 +1,84 @@
+package com.infantjesus.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Throttles login and registration before any password hashing or database work is done.
+ * Every login attempt spends from the client IP's bucket. Failed attempts also spend from a bucket
+ * keyed on the username and client IP together, which slows password guessing against one account
+ * from one address; failures from other addresses never block the real admin's logins.
+ */
+@Component
+public class LoginRateLimiter {
+    
+    @Value("${app.rate-limit.login-ip.capacity:20}")
+    private int loginIpCapacity;
+    
+    @Value("${app.rate-limit.login-ip.per-minute:10}")
+    private int loginIpPerMinute;
+    
+    @Value("${app.rate-limit.login-username.capacity:5}")
+    private int loginUsernameCapacity;
+    
+    @Value("${app.rate-limit.login-username.per-minute:1}")
+    private int loginUsernamePerMinute;
+    
+    @Value("${app.rate-limit.register-ip.capacity:5}")
+    private int registerIpCapacity;
+    
+    @Value("${app.rate-limit.register-ip.per-minute:2}")
+    private int registerIpPerMinute;
+    
+    @Value("${app.rate-limit.max-keys:100000}")
+    private long maxKeys;
+    
+    private TokenBucketLimiter loginByIp;
+    private TokenBucketLimiter loginFailuresByUsernameAndIp;
+    private TokenBucketLimiter registerByIp;
+    
+    @PostConstruct
+    void init() {
+        loginByIp = new TokenBucketLimiter(loginIpCapacity, loginIpPerMinute, maxKeys);
+        loginFailuresByUsernameAndIp = new TokenBucketLimiter(loginUsernameCapacity, loginUsernamePerMinute, maxKeys);
+        registerByIp = new TokenBucketLimiter(registerIpCapacity, registerIpPerMinute, maxKeys);
+    }
+    
+    /**
+     * Admit a login attempt.
+     *
+     * @return 0 if allowed, otherwise how long the client should wait
+     */
+    public Duration admitLogin(String clientIp, String username) {
+        Duration usernameWait = username != null ? loginFailuresByUsernameAndIp.peek(failureKey(clientIp, username)) : Duration.ZERO;
+        if (!usernameWait.isZero()) {
+            return usernameWait;
+        }
+        return loginByIp.tryAcquire(clientIp);
+    }
+    
+    /**
+     * Record a failed login against the username, as tried from this client IP
+     */
+    public void recordLoginFailure(String clientIp, String username) {
+        if (username != null) {
+            loginFailuresByUsernameAndIp.tryAcquire(failureKey(clientIp, username));
+        }
+    }
+    
+    /**
+     * Admit a registration attempt.
+     *
+     * @return 0 if allowed, otherwise how long the client should wait
+     */
+    public Duration admitRegistration(String clientIp) {
+        return registerByIp.tryAcquire(clientIp);
+    }
+    
+    private static String failureKey(String clientIp, String username) {
+        return username.trim().toLowerCase(Locale.ROOT) + "|" + clientIp;
+    }
+}
@@ -0,0 +1,19 @@
+package com.infantjesus.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the password hashing pool is saturated; clients should retry later
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingBusyException extends RuntimeException {
+    
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+    
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
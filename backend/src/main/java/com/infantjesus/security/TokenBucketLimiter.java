@@ -0,0 +1,79 @@
+package com.infantjesus.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token buckets keyed by an arbitrary string (client IP, username). Each bucket is an immutable state
+ * swapped with compare-and-set, so callers never block; the bucket map is a size-bounded Caffeine cache
+ * that forgets a key once its bucket would have refilled completely.
+ */
+public class TokenBucketLimiter {
+    
+    private final double capacity;
+    private final double tokensPerNano;
+    private final Cache<String, AtomicReference<Bucket>> buckets;
+    
+    public TokenBucketLimiter(int capacity, int refillPerMinute, long maxKeys) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        long refillNanos = (long) Math.ceil(capacity / tokensPerNano);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(refillNanos))
+                .build();
+    }
+    
+    /**
+     * Take one token for the key.
+     *
+     * @return 0 if a token was taken, otherwise how long until one will be available
+     */
+    public Duration tryAcquire(String key) {
+        AtomicReference<Bucket> bucket = buckets.get(key, k -> new AtomicReference<>(new Bucket(capacity, System.nanoTime())));
+        while (true) {
+            Bucket current = bucket.get();
+            long now = System.nanoTime();
+            double available = refill(current, now);
+            if (available < 1) {
+                return waitFor(available);
+            }
+            if (bucket.compareAndSet(current, new Bucket(available - 1, now))) {
+                return Duration.ZERO;
+            }
+        }
+    }
+    
+    /**
+     * How long until the key has a token, without taking one; 0 if one is available now
+     */
+    public Duration peek(String key) {
+        AtomicReference<Bucket> bucket = buckets.getIfPresent(key);
+        if (bucket == null) {
+            return Duration.ZERO;
+        }
+        double available = refill(bucket.get(), System.nanoTime());
+        return available >= 1 ? Duration.ZERO : waitFor(available);
+    }
+    
+    private double refill(Bucket bucket, long now) {
+        return Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * tokensPerNano);
+    }
+    
+    private Duration waitFor(double available) {
+        return Duration.ofNanos((long) Math.ceil((1 - available) / tokensPerNano));
+    }
+    
+    private static final class Bucket {
+        final double tokens;
+        final long updatedAt;
+        
+        Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.infantjesus.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * In-memory token revocation for stateless authentication. Revoking a user invalidates every token issued
+ * to them up to that moment; entries are dropped once all such tokens would have expired anyway.
+ * State is per instance, so a multi-node deployment needs a shared store instead.
+ */
+@Service
+public class TokenRevocationService {
+    
+    @Value("${jwt.expiration}")
+    private Long expiration;
+    
+    /** Username to the instant (epoch millis) before which their tokens are no longer accepted */
+    private Cache<String, Long> revokedBefore;
+    
+    @PostConstruct
+    void init() {
+        revokedBefore = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMillis(expiration))
+                .build();
+    }
+    
+    /**
+     * Reject every token issued to the user so far
+     */
+    public void revokeAll(String username) {
+        revokedBefore.put(username, System.currentTimeMillis());
+    }
+    
+    /**
+     * Whether verified claims belong to a token issued before its user was revoked
+     */
+    public boolean isRevoked(Claims claims) {
+        Long cutoff = revokedBefore.getIfPresent(claims.getSubject());
+        if (cutoff == null) {
+            return false;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        // iat has second precision, so a token from the same second as the revocation is rejected too
+        return issuedAt == null || issuedAt.getTime() <= cutoff;
+    }
+}
@@ -6,6 +6,7 @@ import com.infantjesus.dto.AdminCreationDto;
 import com.infantjesus.entity.Admin;
 import com.infantjesus.entity.Role;
 import com.infantjesus.repository.AdminRepository;
+import com.infantjesus.security.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -23,6 +24,9 @@ public class AdminService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
     /**
      * Register a new admin
      */
@@ -314,6 +318,15 @@ public class AdminService {
         return false;
     }
     
+    /**
+     * Delete an admin and invalidate any tokens already issued to them
+     */
+    public void deleteAdmin(Long adminId) {
+        Optional<Admin> admin = adminRepository.findById(adminId);
+        adminRepository.deleteById(adminId);
+        admin.ifPresent(deleted -> tokenRevocationService.revokeAll(deleted.getUsername()));
+    }
+    
     /**
      * Get all admins (for SUPER_ADMIN management)
      */
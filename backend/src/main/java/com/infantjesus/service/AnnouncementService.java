@@ -1,9 +1,16 @@
 package com.infantjesus.service;
 
 import com.infantjesus.dto.AnnouncementDto;
+import com.infantjesus.dto.CursorPage;
+import com.infantjesus.dto.PageCursor;
 import com.infantjesus.entity.Announcement;
 import com.infantjesus.repository.AnnouncementRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,6 +22,12 @@ public class AnnouncementService {
     @Autowired
     private AnnouncementRepository announcementRepository;
     
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * Create a new announcement
      */
@@ -28,12 +41,18 @@ public class AnnouncementService {
         announcement.setUpdatedAt(LocalDateTime.now());
         
         Announcement savedAnnouncement = announcementRepository.save(announcement);
-        return convertToDto(savedAnnouncement);
+        collectionVersions.bump(CollectionVersionService.ANNOUNCEMENTS);
+        AnnouncementDto dto = convertToDto(savedAnnouncement);
+        if (Boolean.TRUE.equals(dto.getIsActive())) {
+            eventPublisher.publishEvent(new LiveUpdateEvent(LiveUpdateEvent.ANNOUNCEMENT_CREATED, dto));
+        }
+        return dto;
     }
     
     /**
      * Get all active announcements ordered by creation date (latest first)
      */
+    @Cacheable(value = "announcements", key = "'active:' + @collectionVersions.current('announcements')", sync = true)
     public List<AnnouncementDto> getActiveAnnouncements() {
         return announcementRepository.findByIsActiveTrueOrderByCreatedAtDesc()
                 .stream()
@@ -41,6 +60,24 @@ public class AnnouncementService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Get one keyset page of active announcements (latest first)
+     */
+    public CursorPage<AnnouncementDto> getActiveAnnouncementsPage(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        // One extra row tells us whether a next page exists without a count query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<Announcement> announcements;
+        if (cursor == null || cursor.isBlank()) {
+            announcements = announcementRepository.findByIsActiveTrueOrderByCreatedAtDescIdDesc(pageable);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            announcements = announcementRepository.findActivePageAfter(after.getCreatedAt(), after.getId(), pageable);
+        }
+        return CursorPage.fromRows(announcements, pageSize, this::convertToDto,
+                row -> new PageCursor(row.getCreatedAt(), row.getId()));
+    }
+    
     /**
      * Get all announcements ordered by creation date (latest first)
      */
@@ -54,6 +91,7 @@ public class AnnouncementService {
     /**
      * Get announcement by ID
      */
+    @Cacheable(value = "announcements", key = "#id")
     public AnnouncementDto getAnnouncementById(Long id) {
         Announcement announcement = announcementRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Announcement not found with id: " + id));
@@ -63,6 +101,7 @@ public class AnnouncementService {
     /**
      * Update an existing announcement
      */
+    @CacheEvict(value = "announcements", key = "#id")
     public AnnouncementDto updateAnnouncement(Long id, AnnouncementDto announcementDto) {
         Announcement announcement = announcementRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Announcement not found with id: " + id));
@@ -82,21 +121,25 @@ public class AnnouncementService {
         
         announcement.setUpdatedAt(LocalDateTime.now());
         Announcement updatedAnnouncement = announcementRepository.save(announcement);
+        collectionVersions.bump(CollectionVersionService.ANNOUNCEMENTS);
         return convertToDto(updatedAnnouncement);
     }
     
     /**
      * Delete an announcement
      */
+    @CacheEvict(value = "announcements", key = "#id")
     public void deleteAnnouncement(Long id) {
         Announcement announcement = announcementRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Announcement not found with id: " + id));
         announcementRepository.deleteById(id);
+        collectionVersions.bump(CollectionVersionService.ANNOUNCEMENTS);
     }
     
     /**
      * Toggle active status of an announcement
      */
+    @CacheEvict(value = "announcements", key = "#id")
     public AnnouncementDto toggleActiveStatus(Long id) {
         Announcement announcement = announcementRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Announcement not found with id: " + id));
@@ -105,6 +148,7 @@ public class AnnouncementService {
         announcement.setUpdatedAt(LocalDateTime.now());
         
         Announcement updatedAnnouncement = announcementRepository.save(announcement);
+        collectionVersions.bump(CollectionVersionService.ANNOUNCEMENTS);
         return convertToDto(updatedAnnouncement);
     }
     
@@ -119,10 +163,15 @@ public class AnnouncementService {
     }
     
     /**
-     * Search announcements by title
+     * Full-text search over announcement titles and messages, ranked by relevance
      */
-    public List<AnnouncementDto> searchAnnouncements(String keyword) {
-        return announcementRepository.findByTitleContainingIgnoreCase(keyword)
+    @Cacheable(value = "announcementSearch", key = "#keyword.toLowerCase() + ':' + #page + ':' + #size + ':' + @collectionVersions.current('announcements')")
+    public List<AnnouncementDto> searchAnnouncements(String keyword, int page, int size) {
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        int pageSize = CursorPage.clampLimit(size);
+        return announcementRepository.search(keyword, pageSize, CursorPage.searchOffset(page, pageSize))
                 .stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
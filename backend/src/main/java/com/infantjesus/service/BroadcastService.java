@@ -0,0 +1,235 @@
+package com.infantjesus.service;
+
+import com.infantjesus.dto.AnnouncementDto;
+import com.infantjesus.entity.AnnouncementBroadcast;
+import com.infantjesus.entity.BroadcastStatus;
+import com.infantjesus.entity.OutboundMail;
+import com.infantjesus.entity.User;
+import com.infantjesus.repository.AnnouncementBroadcastRepository;
+import com.infantjesus.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Emails an announcement to every registered user. Users are read in id order one batch at a time and
+ * each batch is written to the outbound mail queue in the same transaction that moves the broadcast's
+ * cursor, so progress survives a restart and no user is mailed twice. Batches are released on a fixed
+ * interval, which caps how fast a broadcast can fill the queue ahead of the SMTP workers.
+ */
+@Service
+public class BroadcastService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BroadcastService.class);
+    
+    private static final String URGENT = "URGENT";
+    
+    @Autowired
+    private AnnouncementBroadcastRepository broadcastRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private AnnouncementService announcementService;
+    
+    @Autowired
+    private MailQueueService mailQueue;
+    
+    // Each batch must run through the proxy to get its own transaction
+    @Autowired
+    @Lazy
+    private BroadcastService self;
+    
+    @Value("${app.broadcast.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${app.broadcast.on-create:true}")
+    private boolean broadcastOnCreate;
+    
+    @Value("${app.broadcast.subject-template:{{title}}}")
+    private String subjectTemplate;
+    
+    @Value("${app.broadcast.body-template:{{message}}}")
+    private String bodyTemplate;
+    
+    /**
+     * Broadcast a newly created announcement if it is active and creation broadcasts are enabled
+     */
+    public Optional<AnnouncementBroadcast> onAnnouncementCreated(AnnouncementDto announcement) {
+        if (!Boolean.TRUE.equals(announcement.getIsActive())) {
+            return Optional.empty();
+        }
+        if (!broadcastOnCreate && !URGENT.equalsIgnoreCase(announcement.getPriority())) {
+            return Optional.empty();
+        }
+        return Optional.of(start(announcement.getId()));
+    }
+    
+    /**
+     * Broadcast an announcement that has become URGENT, unless it has already been broadcast
+     */
+    public Optional<AnnouncementBroadcast> onAnnouncementUpdated(AnnouncementDto announcement) {
+        if (!Boolean.TRUE.equals(announcement.getIsActive())
+                || !URGENT.equalsIgnoreCase(announcement.getPriority())
+                || broadcastRepository.existsByAnnouncementId(announcement.getId())) {
+            return Optional.empty();
+        }
+        return Optional.of(start(announcement.getId()));
+    }
+    
+    /**
+     * Start broadcasting an announcement; returns the running broadcast if there already is one.
+     * The partial unique index from BroadcastIndexConfig decides between concurrent starts.
+     */
+    public AnnouncementBroadcast start(Long announcementId) {
+        Optional<AnnouncementBroadcast> running =
+                broadcastRepository.findFirstByAnnouncementIdAndStatus(announcementId, BroadcastStatus.RUNNING);
+        if (running.isPresent()) {
+            return running.get();
+        }
+        
+        AnnouncementDto announcement = announcementService.getAnnouncementById(announcementId);
+        AnnouncementBroadcast broadcast = new AnnouncementBroadcast();
+        broadcast.setAnnouncementId(announcementId);
+        broadcast.setSubject(renderAnnouncement(subjectTemplate, announcement));
+        broadcast.setBody(renderAnnouncement(bodyTemplate, announcement));
+        broadcast.setTotalRecipients(userRepository.count());
+        AnnouncementBroadcast saved;
+        try {
+            saved = broadcastRepository.save(broadcast);
+        } catch (DataIntegrityViolationException e) {
+            // Another request started this broadcast between the check above and the insert
+            return broadcastRepository.findFirstByAnnouncementIdAndStatus(announcementId, BroadcastStatus.RUNNING)
+                    .orElseThrow(() -> e);
+        }
+        logger.info("Started broadcast {} of announcement {} to {} users",
+                saved.getId(), announcementId, saved.getTotalRecipients());
+        return saved;
+    }
+    
+    /**
+     * Release the next batch of every running broadcast, then wake the mail workers once
+     */
+    @Scheduled(fixedDelayString = "${app.broadcast.batch-interval:PT10S}")
+    public void advance() {
+        int enqueued = 0;
+        for (Long id : broadcastRepository.findIdsByStatus(BroadcastStatus.RUNNING)) {
+            try {
+                enqueued += self.advanceBatch(id);
+            } catch (RuntimeException e) {
+                // The cursor did not move, so the same batch is retried on the next tick
+                logger.error("Broadcast {} batch failed: {}", id, e.getMessage());
+            }
+        }
+        if (enqueued > 0) {
+            mailQueue.wakeWorkers();
+        }
+    }
+    
+    /**
+     * Queue one batch of a broadcast and move its cursor past it
+     *
+     * @return the number of messages queued
+     */
+    @Transactional
+    public int advanceBatch(Long id) {
+        // The row lock keeps a second server from queueing the same batch
+        AnnouncementBroadcast broadcast = broadcastRepository.lockById(id).orElse(null);
+        if (broadcast == null || broadcast.getStatus() != BroadcastStatus.RUNNING) {
+            return 0;
+        }
+        
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(
+                broadcast.getLastUserId(), PageRequest.of(0, batchSize));
+        LocalDateTime now = LocalDateTime.now();
+        broadcast.setUpdatedAt(now);
+        if (users.isEmpty()) {
+            broadcast.setStatus(BroadcastStatus.COMPLETED);
+            broadcast.setCompletedAt(now);
+            broadcastRepository.save(broadcast);
+            logger.info("Broadcast {} completed: {} messages queued", id, broadcast.getEnqueuedCount());
+            return 0;
+        }
+        
+        List<OutboundMail> mails = new ArrayList<>(users.size());
+        for (User user : users) {
+            if (user.getEmail() == null || user.getEmail().isBlank()) {
+                continue;
+            }
+            String username = user.getUsername() != null ? user.getUsername() : "";
+            OutboundMail mail = new OutboundMail(user.getEmail(), null, broadcast.getSubject(),
+                    broadcast.getBody().replace("{{username}}", username));
+            mail.setBroadcastId(id);
+            mails.add(mail);
+        }
+        mailQueue.enqueueAll(mails);
+        
+        broadcast.setLastUserId(users.get(users.size() - 1).getId());
+        broadcast.setEnqueuedCount(broadcast.getEnqueuedCount() + mails.size());
+        broadcastRepository.save(broadcast);
+        return mails.size();
+    }
+    
+    /**
+     * Stop a running broadcast; messages already queued are still delivered
+     */
+    public AnnouncementBroadcast cancel(Long id) {
+        AnnouncementBroadcast broadcast = broadcastRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Broadcast not found with id: " + id));
+        if (broadcast.getStatus() == BroadcastStatus.RUNNING) {
+            broadcast.setStatus(BroadcastStatus.CANCELLED);
+            broadcast.setUpdatedAt(LocalDateTime.now());
+            broadcast = broadcastRepository.save(broadcast);
+        }
+        return broadcast;
+    }
+    
+    /**
+     * Get a broadcast by ID
+     */
+    public AnnouncementBroadcast getBroadcast(Long id) {
+        return broadcastRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Broadcast not found with id: " + id));
+    }
+    
+    /**
+     * Get all broadcasts of an announcement (latest first)
+     */
+    public List<AnnouncementBroadcast> getBroadcastsForAnnouncement(Long announcementId) {
+        return broadcastRepository.findByAnnouncementIdOrderByIdDesc(announcementId);
+    }
+    
+    /**
+     * Delivery state of a broadcast's queued messages by status
+     */
+    public Map<String, Long> getDeliveryCounts(Long id) {
+        return mailQueue.getBroadcastCounts(id);
+    }
+    
+    /**
+     * Fill in the announcement placeholders; {{username}} is left for each recipient
+     */
+    private static String renderAnnouncement(String template, AnnouncementDto announcement) {
+        return template
+                .replace("{{title}}", nullToEmpty(announcement.getTitle()))
+                .replace("{{message}}", nullToEmpty(announcement.getMessage()))
+                .replace("{{priority}}", nullToEmpty(announcement.getPriority()));
+    }
+    
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -4,6 +4,8 @@ import com.infantjesus.dto.ClassScheduleDto;
 import com.infantjesus.entity.ClassSchedule;
 import com.infantjesus.repository.ClassScheduleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,6 +17,12 @@ public class ClassScheduleService {
     @Autowired
     private ClassScheduleRepository classScheduleRepository;
     
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * Create a new class schedule
      */
@@ -28,6 +36,7 @@ public class ClassScheduleService {
         classSchedule.setCreatedAt(LocalDateTime.now());
         
         ClassSchedule savedClass = classScheduleRepository.save(classSchedule);
+        collectionVersions.bump(CollectionVersionService.CLASSES);
         return convertToDto(savedClass);
     }
     
@@ -44,6 +53,7 @@ public class ClassScheduleService {
     /**
      * Get all live classes
      */
+    @Cacheable(value = "classes", key = "'live:' + @collectionVersions.current('classes')", sync = true)
     public List<ClassScheduleDto> getLiveClasses() {
         return classScheduleRepository.findByIsLiveTrue()
                 .stream()
@@ -84,6 +94,7 @@ public class ClassScheduleService {
         }
         
         ClassSchedule updatedClass = classScheduleRepository.save(classSchedule);
+        collectionVersions.bump(CollectionVersionService.CLASSES);
         return convertToDto(updatedClass);
     }
     
@@ -95,6 +106,7 @@ public class ClassScheduleService {
             throw new RuntimeException("Class schedule not found with id: " + id);
         }
         classScheduleRepository.deleteById(id);
+        collectionVersions.bump(CollectionVersionService.CLASSES);
     }
     
     /**
@@ -106,7 +118,10 @@ public class ClassScheduleService {
         
         classSchedule.setIsLive(!classSchedule.getIsLive());
         ClassSchedule updatedClass = classScheduleRepository.save(classSchedule);
-        return convertToDto(updatedClass);
+        collectionVersions.bump(CollectionVersionService.CLASSES);
+        ClassScheduleDto dto = convertToDto(updatedClass);
+        eventPublisher.publishEvent(new LiveUpdateEvent(LiveUpdateEvent.CLASS_LIVE, dto));
+        return dto;
     }
     
     /**
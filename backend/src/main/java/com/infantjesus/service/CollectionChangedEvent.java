@@ -0,0 +1,23 @@
+package com.infantjesus.service;
+
+/**
+ * Published by {@link CollectionVersionService} after a write bumps a collection's version
+ */
+public class CollectionChangedEvent {
+    
+    private final String collection;
+    private final long version;
+    
+    public CollectionChangedEvent(String collection, long version) {
+        this.collection = collection;
+        this.version = version;
+    }
+    
+    public String getCollection() {
+        return collection;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+}
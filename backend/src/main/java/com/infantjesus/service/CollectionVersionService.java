@@ -0,0 +1,82 @@
+package com.infantjesus.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-collection write counters backing listing ETags and listing cache keys.
+ * Services bump a collection after every successful write to it; inside a transaction the
+ * bump takes effect only once it commits, so a new version never labels uncommitted data.
+ * Each bump is published as a {@link CollectionChangedEvent}.
+ */
+@Service("collectionVersions")
+public class CollectionVersionService {
+    
+    public static final String EVENTS = "events";
+    public static final String FACILITIES = "facilities";
+    public static final String ANNOUNCEMENTS = "announcements";
+    public static final String CLASSES = "classes";
+    
+    // Random per-process prefix so a restart never re-issues an ETag a client still holds
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+    
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public CollectionVersionService(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    /**
+     * Current version of a collection
+     */
+    public long current(String collection) {
+        return counter(collection).get();
+    }
+    
+    /**
+     * Record a write to a collection, after the surrounding transaction commits if there is one
+     */
+    public void bump(String collection) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance(collection);
+                }
+            });
+        } else {
+            advance(collection);
+        }
+    }
+    
+    /**
+     * Strong ETag for the current state of a collection
+     */
+    public String etag(String collection) {
+        return etag(collection, current(collection));
+    }
+    
+    /**
+     * Strong ETag for a specific version of a collection
+     */
+    public String etag(String collection, long version) {
+        return "\"" + collection + "-" + epoch + "-" + version + "\"";
+    }
+    
+    private void advance(String collection) {
+        long version = counter(collection).incrementAndGet();
+        eventPublisher.publishEvent(new CollectionChangedEvent(collection, version));
+    }
+    
+    private AtomicLong counter(String collection) {
+        return versions.computeIfAbsent(collection, name -> new AtomicLong());
+    }
+}
@@ -1,14 +1,20 @@
 package com.infantjesus.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import com.infantjesus.jfr.MailSendEvent;
 import com.infantjesus.dto.QueryRequest;
 
+/**
+ * Builds website mail and hands it to the outbound queue; delivery happens in the background
+ */
 @Service
 public class EmailService {
-	private final JavaMailSender mailSender;
+	private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
+	private final MailQueueService mailQueue;
 
 	@Value("${spring.mail.username}")
 	private String fromAddress;
@@ -16,41 +22,50 @@ public class EmailService {
 	@Value("${app.mail.to}")
 	private String toAddress;
 
-	public EmailService(JavaMailSender mailSender) {
-		this.mailSender = mailSender;
+	public EmailService(MailQueueService mailQueue) {
+		this.mailQueue = mailQueue;
 	}
 
 	public boolean sendQuery(QueryRequest query) {
+		MailSendEvent event = new MailSendEvent();
+		event.begin();
 		try {
-			SimpleMailMessage message = new SimpleMailMessage();
-			message.setFrom(fromAddress);
-			message.setTo(toAddress);
-			message.setReplyTo(query.getEmail() != null ? query.getEmail() : fromAddress);
-			message.setSubject("New Query from Website");
-			message.setText("Name: " + (query.getName() != null ? query.getName() : "N/A") +
+			String body = "Name: " + (query.getName() != null ? query.getName() : "N/A") +
 					"\nEmail: " + (query.getEmail() != null ? query.getEmail() : "N/A") +
-					"\nMessage: " + (query.getMessage() != null ? query.getMessage() : ""));
-
-			mailSender.send(message);
+					"\nMessage: " + (query.getMessage() != null ? query.getMessage() : "");
+			mailQueue.enqueue(toAddress, query.getEmail() != null ? query.getEmail() : fromAddress,
+					"New Query from Website", body);
 			return true;
 		} catch (Exception e) {
-			System.out.println("❌ Email send failed: " + e.getMessage());
+			logger.error("Email enqueue failed: {}", e.getMessage());
+			event.failed = 1;
 			return false;
+		} finally {
+			commit(event);
 		}
 	}
 
 	public boolean sendEmail(String to, String subject, String body) {
+		MailSendEvent event = new MailSendEvent();
+		event.begin();
 		try {
-			SimpleMailMessage message = new SimpleMailMessage();
-			message.setFrom(fromAddress);
-			message.setTo(to);
-			message.setSubject(subject);
-			message.setText(body);
-			mailSender.send(message);
+			mailQueue.enqueue(to, null, subject, body);
 			return true;
 		} catch (Exception e) {
-			System.out.println("❌ Email send failed: " + e.getMessage());
+			logger.error("Email enqueue failed: {}", e.getMessage());
+			event.failed = 1;
 			return false;
+		} finally {
+			commit(event);
+		}
+	}
+
+	private static void commit(MailSendEvent event) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.operation = MailSendEvent.ENQUEUE;
+			event.messages = 1;
+			event.commit();
 		}
 	}
 }
@@ -1,39 +1,58 @@
 package com.infantjesus.service;
 
+import com.infantjesus.dto.CursorPage;
 import com.infantjesus.dto.EventDto;
+import com.infantjesus.dto.PageCursor;
 import com.infantjesus.entity.Event;
+import com.infantjesus.entity.ImageStatus;
 import com.infantjesus.repository.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class EventService {
     
+    private static final Logger logger = LoggerFactory.getLogger(EventService.class);
+    
     @Autowired
     private EventRepository eventRepository;
     
-    private final String uploadDir = "uploads/events/";
+    @Autowired
+    private CollectionVersionService collectionVersions;
     
-    public EventService() {
-        // Create upload directory if it doesn't exist
-        try {
-            Path path = Paths.get(uploadDir);
-            if (!Files.exists(path)) {
-                Files.createDirectories(path);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Could not create upload directory", e);
-        }
-    }
+    @Autowired
+    private UploadStorageService uploadStorage;
+    
+    @Autowired
+    private UploadGarbageCollector uploadGc;
+    
+    // Upload completion runs on another thread; calling through the proxy keeps the cache advice
+    @Autowired
+    @Lazy
+    private EventService self;
+    
+    @Value("${app.uploads.pending-timeout:PT15M}")
+    private Duration pendingTimeout;
     
     /**
      * Create a new event with DTO
@@ -47,16 +66,19 @@ public class EventService {
         event.setCreatedAt(LocalDateTime.now());
         
         Event savedEvent = eventRepository.save(event);
+        collectionVersions.bump(CollectionVersionService.EVENTS);
         return convertToDto(savedEvent);
     }
 
     /**
-     * Create a new event with optional image upload (multipart/form-data)
+     * Create a new event with optional image upload (multipart/form-data).
+     * The event is saved straight away with a PENDING image; the image is finalized in the background.
      */
     public EventDto createEvent(String title,
                                 String description,
                                 LocalDateTime eventDateTime,
                                 MultipartFile imageFile) {
+        Path stagedImage = null;
         try {
             Event event = new Event();
             event.setTitle(title);
@@ -65,20 +87,83 @@ public class EventService {
             event.setCreatedAt(LocalDateTime.now());
 
             if (imageFile != null && !imageFile.isEmpty()) {
-                String imageUrl = saveImage(imageFile);
-                event.setImageUrl(imageUrl);
+                stagedImage = uploadStorage.stage(imageFile);
+                startUpload(event);
             }
 
             Event savedEvent = eventRepository.save(event);
+            collectionVersions.bump(CollectionVersionService.EVENTS);
+            
+            if (stagedImage != null) {
+                Long eventId = savedEvent.getId();
+                String token = savedEvent.getImageUploadToken();
+                uploadStorage.finalizeAsync(stagedImage, imageFile.getOriginalFilename())
+                        .whenComplete((image, error) -> self.completeImageUpload(eventId, token, image, error));
+            }
             return convertToDto(savedEvent);
         } catch (IOException e) {
             throw new RuntimeException("Failed to save event image", e);
+        } catch (RuntimeException e) {
+            if (stagedImage != null) {
+                uploadStorage.discard(stagedImage);
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Attach a finalized upload to its event, or mark the image as failed. Applies only while the event is
+     * still waiting for this very upload; the row lock orders it against concurrent edits.
+     */
+    @CacheEvict(value = "events", key = "#id")
+    @Transactional
+    public void completeImageUpload(Long id, String uploadToken, StoredImage image, Throwable error) {
+        Optional<Event> found = eventRepository.lockById(id);
+        if (found.isEmpty()
+                || found.get().getImageStatus() != ImageStatus.PENDING
+                || !Objects.equals(found.get().getImageUploadToken(), uploadToken)) {
+            // The event was deleted, or a newer upload or image change superseded this one
+            if (image != null) {
+                uploadGc.release(image.getUrl());
+            }
+            return;
+        }
+        
+        Event event = found.get();
+        String previousImageUrl = event.getImageUrl();
+        if (error != null) {
+            logger.error("Image upload failed for event {}: {}", id, error.getMessage());
+            event.setImageStatus(ImageStatus.FAILED);
+        } else {
+            event.setImageUrl(image.getUrl());
+            event.setImageSrcset(image.toSrcset());
+            event.setImageStatus(ImageStatus.READY);
+        }
+        event.setImageUploadToken(null);
+        event.setImagePendingSince(null);
+        eventRepository.save(event);
+        // Both wait for the commit, so a rollback leaves the version and the old image alone
+        collectionVersions.bump(CollectionVersionService.EVENTS);
+        if (previousImageUrl != null && !previousImageUrl.equals(event.getImageUrl())) {
+            uploadGc.release(previousImageUrl);
+        }
+    }
+    
+    /**
+     * Fail uploads that never completed, e.g. because the instance restarted while they were queued
+     */
+    @Scheduled(fixedDelayString = "${app.uploads.pending-sweep-interval:PT5M}", initialDelayString = "${app.uploads.pending-sweep-initial-delay:PT1M}")
+    public void failStalePendingImages() {
+        for (Event event : eventRepository.findStalePendingImages(LocalDateTime.now().minus(pendingTimeout))) {
+            self.completeImageUpload(event.getId(), event.getImageUploadToken(), null,
+                    new IllegalStateException("upload did not complete within " + pendingTimeout));
         }
     }
     
     /**
      * Get all events ordered by creation date (latest first)
      */
+    @Cacheable(value = "events", key = "'all:' + @collectionVersions.current('events')", sync = true)
     public List<EventDto> getAllEvents() {
         return eventRepository.findAllByOrderByCreatedAtDesc()
                 .stream()
@@ -86,9 +171,43 @@ public class EventService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Get one keyset page of events (latest first)
+     */
+    public CursorPage<EventDto> getEventsPage(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        // One extra row tells us whether a next page exists without a count query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<Event> events;
+        if (cursor == null || cursor.isBlank()) {
+            events = eventRepository.findAllByOrderByCreatedAtDescIdDesc(pageable);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            events = eventRepository.findPageAfter(after.getCreatedAt(), after.getId(), pageable);
+        }
+        return CursorPage.fromRows(events, pageSize, this::convertToDto,
+                row -> new PageCursor(row.getCreatedAt(), row.getId()));
+    }
+    
+    /**
+     * Full-text search over event titles and descriptions, ranked by relevance
+     */
+    @Cacheable(value = "eventSearch", key = "#keyword.toLowerCase() + ':' + #page + ':' + #size + ':' + @collectionVersions.current('events')")
+    public List<EventDto> searchEvents(String keyword, int page, int size) {
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        int pageSize = CursorPage.clampLimit(size);
+        return eventRepository.search(keyword, pageSize, CursorPage.searchOffset(page, pageSize))
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * Get event by ID
      */
+    @Cacheable(value = "events", key = "#id")
     public EventDto getEventById(Long id) {
         Event event = eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
@@ -98,8 +217,10 @@ public class EventService {
     /**
      * Update an existing event
      */
+    @CacheEvict(value = "events", key = "#id")
+    @Transactional
     public EventDto updateEvent(Long id, EventDto eventDto) {
-        Event event = eventRepository.findById(id)
+        Event event = eventRepository.lockById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
         
         if (eventDto.getTitle() != null) {
@@ -111,61 +232,53 @@ public class EventService {
         if (eventDto.getEventDateTime() != null) {
             event.setEventDateTime(eventDto.getEventDateTime());
         }
-        if (eventDto.getImageUrl() != null) {
+        String previousImageUrl = event.getImageUrl();
+        if (eventDto.getImageUrl() != null && !eventDto.getImageUrl().equals(previousImageUrl)) {
+            // Derivatives belong to the previous upload, and an upload still in flight is superseded
             event.setImageUrl(eventDto.getImageUrl());
+            event.setImageSrcset(null);
+            event.setImageStatus(ImageStatus.READY);
+            event.setImageUploadToken(null);
+            event.setImagePendingSince(null);
         }
         
         Event updatedEvent = eventRepository.save(event);
+        // Both wait for the commit, so a rollback leaves the version and the old image alone
+        collectionVersions.bump(CollectionVersionService.EVENTS);
+        if (previousImageUrl != null && !previousImageUrl.equals(updatedEvent.getImageUrl())) {
+            uploadGc.release(previousImageUrl);
+        }
         return convertToDto(updatedEvent);
     }
     
     /**
      * Delete an event
      */
+    @CacheEvict(value = "events", key = "#id")
     public void deleteEvent(Long id) {
         Event event = eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
         
-        // Delete image if exists
-        if (event.getImageUrl() != null) {
-            deleteImage(event.getImageUrl());
-        }
-        
         eventRepository.deleteById(id);
+        collectionVersions.bump(CollectionVersionService.EVENTS);
+        // Other rows may share the same blob, so only the collector decides whether the file goes
+        uploadGc.release(event.getImageUrl());
     }
     
     /**
-     * Save uploaded image to local storage
+     * Mark the event as waiting for a new upload; only a completion carrying this token will be applied
      */
-    private String saveImage(MultipartFile imageFile) throws IOException {
-        String fileName = UUID.randomUUID().toString() + "_" + imageFile.getOriginalFilename();
-        Path filePath = Paths.get(uploadDir + fileName);
-        Files.copy(imageFile.getInputStream(), filePath);
-        return "/uploads/events/" + fileName;
-    }
-    
-    /**
-     * Delete image from local storage
-     */
-    private void deleteImage(String imageUrl) {
-        try {
-            if (imageUrl != null && imageUrl.startsWith("/api/uploads/")) {
-                // Remove /api prefix for file system path
-                String filePath = imageUrl.replace("/api", "");
-                Path path = Paths.get("." + filePath);
-                Files.deleteIfExists(path);
-            }
-        } catch (IOException e) {
-            // Log error but don't throw exception
-            System.err.println("Error deleting image: " + e.getMessage());
-        }
+    private static void startUpload(Event event) {
+        event.setImageStatus(ImageStatus.PENDING);
+        event.setImageUploadToken(UUID.randomUUID().toString());
+        event.setImagePendingSince(LocalDateTime.now());
     }
     
     /**
      * Convert Entity to DTO
      */
     private EventDto convertToDto(Event event) {
-        return new EventDto(
+        EventDto dto = new EventDto(
             event.getId(),
             event.getTitle(),
             event.getDescription(),
@@ -173,5 +286,8 @@ public class EventService {
             event.getEventDateTime(),
             event.getCreatedAt()
         );
+        dto.setImageStatus(event.getImageStatus() != null ? event.getImageStatus().name() : null);
+        dto.setSrcset(StoredImage.parseSrcset(event.getImageSrcset()));
+        return dto;
     }
 }
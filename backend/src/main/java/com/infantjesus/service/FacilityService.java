@@ -1,58 +1,95 @@
 package com.infantjesus.service;
 
+import com.infantjesus.dto.CursorPage;
 import com.infantjesus.dto.FacilityDto;
+import com.infantjesus.dto.PageCursor;
 import com.infantjesus.entity.Facility;
+import com.infantjesus.entity.ImageStatus;
 import com.infantjesus.repository.FacilityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class FacilityService {
     
+    private static final Logger logger = LoggerFactory.getLogger(FacilityService.class);
+    
     @Autowired
     private FacilityRepository facilityRepository;
     
-    private final String uploadDir = "uploads/facilities/";
+    @Autowired
+    private CollectionVersionService collectionVersions;
     
-    public FacilityService() {
-        // Create upload directory if it doesn't exist
-        try {
-            Path path = Paths.get(uploadDir);
-            if (!Files.exists(path)) {
-                Files.createDirectories(path);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Could not create upload directory", e);
-        }
-    }
+    @Autowired
+    private UploadStorageService uploadStorage;
+    
+    @Autowired
+    private UploadGarbageCollector uploadGc;
+    
+    // Upload completion runs on another thread; calling through the proxy keeps the cache advice
+    @Autowired
+    @Lazy
+    private FacilityService self;
+    
+    @Value("${app.uploads.pending-timeout:PT15M}")
+    private Duration pendingTimeout;
     
     /**
-     * Create a new facility with optional image upload
+     * Create a new facility with optional image upload.
+     * The facility is saved straight away with a PENDING image; the image is finalized in the background.
      */
     public FacilityDto createFacility(String name, String description, MultipartFile imageFile) throws IOException {
-        String imageUrl = null;
+        Path stagedImage = null;
         
         if (imageFile != null && !imageFile.isEmpty()) {
-            imageUrl = saveImage(imageFile);
+            stagedImage = uploadStorage.stage(imageFile);
         }
         
-        Facility facility = new Facility(name, description, imageUrl);
-        Facility savedFacility = facilityRepository.save(facility);
+        Facility facility = new Facility(name, description, null);
+        if (stagedImage != null) {
+            startUpload(facility);
+        }
+        Facility savedFacility;
+        try {
+            savedFacility = facilityRepository.save(facility);
+        } catch (RuntimeException e) {
+            if (stagedImage != null) {
+                uploadStorage.discard(stagedImage);
+            }
+            throw e;
+        }
+        collectionVersions.bump(CollectionVersionService.FACILITIES);
         
+        if (stagedImage != null) {
+            finalizeImage(savedFacility.getId(), savedFacility.getImageUploadToken(), stagedImage, imageFile.getOriginalFilename());
+        }
         return convertToDto(savedFacility);
     }
     
     /**
      * Get all facilities ordered by creation date (latest first)
      */
+    @Cacheable(value = "facilities", key = "'all:' + @collectionVersions.current('facilities')", sync = true)
     public List<FacilityDto> getAllFacilities() {
         return facilityRepository.findAllByOrderByCreatedAtDesc()
                 .stream()
@@ -60,9 +97,28 @@ public class FacilityService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Get one keyset page of facilities (latest first)
+     */
+    public CursorPage<FacilityDto> getFacilitiesPage(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        // One extra row tells us whether a next page exists without a count query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<Facility> facilities;
+        if (cursor == null || cursor.isBlank()) {
+            facilities = facilityRepository.findAllByOrderByCreatedAtDescIdDesc(pageable);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            facilities = facilityRepository.findPageAfter(after.getCreatedAt(), after.getId(), pageable);
+        }
+        return CursorPage.fromRows(facilities, pageSize, this::convertToDto,
+                row -> new PageCursor(row.getCreatedAt(), row.getId()));
+    }
+    
     /**
      * Get facility by ID
      */
+    @Cacheable(value = "facilities", key = "#id")
     public FacilityDto getFacilityById(Long id) {
         Facility facility = facilityRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Facility not found with id: " + id));
@@ -72,95 +128,153 @@ public class FacilityService {
     /**
      * Update an existing facility
      */
+    @CacheEvict(value = "facilities", key = "#id")
+    @Transactional
     public FacilityDto updateFacility(Long id, String name, String description, MultipartFile imageFile) throws IOException {
-        Facility facility = facilityRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Facility not found with id: " + id));
+        // Staged before taking the row lock, so the lock is not held while the upload is copied to disk
+        Path stagedImage = null;
+        if (imageFile != null && !imageFile.isEmpty()) {
+            stagedImage = uploadStorage.stage(imageFile);
+        }
         
-        if (name != null) {
-            facility.setName(name);
+        Facility updatedFacility;
+        try {
+            Facility facility = facilityRepository.lockById(id)
+                    .orElseThrow(() -> new RuntimeException("Facility not found with id: " + id));
+            if (name != null) {
+                facility.setName(name);
+            }
+            if (description != null) {
+                facility.setDescription(description);
+            }
+            if (stagedImage != null) {
+                // The old image stays visible until the new one is finalized; an older upload still in flight is superseded
+                startUpload(facility);
+            }
+            updatedFacility = facilityRepository.saveAndFlush(facility);
+        } catch (RuntimeException e) {
+            if (stagedImage != null) {
+                uploadStorage.discard(stagedImage);
+            }
+            throw e;
         }
-        if (description != null) {
-            facility.setDescription(description);
+        collectionVersions.bump(CollectionVersionService.FACILITIES);
+        
+        if (stagedImage != null) {
+            finalizeImage(id, updatedFacility.getImageUploadToken(), stagedImage, imageFile.getOriginalFilename());
         }
-        if (imageFile != null && !imageFile.isEmpty()) {
-            // Delete old image if exists
-            if (facility.getImageUrl() != null) {
-                deleteImage(facility.getImageUrl());
+        return convertToDto(updatedFacility);
+    }
+    
+    /**
+     * Attach a finalized upload to its facility, replacing any previous image, or mark the image as failed.
+     * Applies only while the facility is still waiting for this very upload; the row lock orders it against
+     * concurrent edits.
+     */
+    @CacheEvict(value = "facilities", key = "#id")
+    @Transactional
+    public void completeImageUpload(Long id, String uploadToken, StoredImage image, Throwable error) {
+        Optional<Facility> found = facilityRepository.lockById(id);
+        if (found.isEmpty()
+                || found.get().getImageStatus() != ImageStatus.PENDING
+                || !Objects.equals(found.get().getImageUploadToken(), uploadToken)) {
+            // The facility was deleted, or a newer upload superseded this one
+            if (image != null) {
+                uploadGc.release(image.getUrl());
             }
-            facility.setImageUrl(saveImage(imageFile));
+            return;
         }
         
-        Facility updatedFacility = facilityRepository.save(facility);
-        return convertToDto(updatedFacility);
+        Facility facility = found.get();
+        String previousImageUrl = facility.getImageUrl();
+        if (error != null) {
+            logger.error("Image upload failed for facility {}: {}", id, error.getMessage());
+            facility.setImageStatus(ImageStatus.FAILED);
+        } else {
+            facility.setImageUrl(image.getUrl());
+            facility.setImageSrcset(image.toSrcset());
+            facility.setImageStatus(ImageStatus.READY);
+        }
+        facility.setImageUploadToken(null);
+        facility.setImagePendingSince(null);
+        facilityRepository.save(facility);
+        // Both wait for the commit, so a rollback leaves the version and the old image alone
+        collectionVersions.bump(CollectionVersionService.FACILITIES);
+        if (previousImageUrl != null && !previousImageUrl.equals(facility.getImageUrl())) {
+            uploadGc.release(previousImageUrl);
+        }
+    }
+    
+    /**
+     * Fail uploads that never completed, e.g. because the instance restarted while they were queued
+     */
+    @Scheduled(fixedDelayString = "${app.uploads.pending-sweep-interval:PT5M}", initialDelayString = "${app.uploads.pending-sweep-initial-delay:PT1M}")
+    public void failStalePendingImages() {
+        for (Facility facility : facilityRepository.findStalePendingImages(LocalDateTime.now().minus(pendingTimeout))) {
+            self.completeImageUpload(facility.getId(), facility.getImageUploadToken(), null,
+                    new IllegalStateException("upload did not complete within " + pendingTimeout));
+        }
     }
     
     /**
      * Delete a facility
      */
+    @CacheEvict(value = "facilities", key = "#id")
     public void deleteFacility(Long id) {
         Facility facility = facilityRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Facility not found with id: " + id));
         
-        // Delete image if exists
-        if (facility.getImageUrl() != null) {
-            deleteImage(facility.getImageUrl());
-        }
-        
         facilityRepository.deleteById(id);
+        collectionVersions.bump(CollectionVersionService.FACILITIES);
+        // Other rows may share the same blob, so only the collector decides whether the file goes
+        uploadGc.release(facility.getImageUrl());
     }
     
     /**
-     * Search facilities by name or description
+     * Full-text search over facility names and descriptions, ranked by relevance
      */
-    public List<FacilityDto> searchFacilities(String keyword) {
-        List<Facility> nameResults = facilityRepository.findByNameContainingIgnoreCase(keyword);
-        List<Facility> descResults = facilityRepository.findByDescriptionContainingIgnoreCase(keyword);
-        
-        // Combine and remove duplicates
-        nameResults.addAll(descResults);
-        return nameResults.stream()
-                .distinct()
+    @Cacheable(value = "facilitySearch", key = "#keyword.toLowerCase() + ':' + #page + ':' + #size + ':' + @collectionVersions.current('facilities')")
+    public List<FacilityDto> searchFacilities(String keyword, int page, int size) {
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        int pageSize = CursorPage.clampLimit(size);
+        return facilityRepository.search(keyword, pageSize, CursorPage.searchOffset(page, pageSize))
+                .stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
     /**
-     * Save uploaded image to local storage
+     * Hand a staged upload to the upload executor and record the outcome on the facility
      */
-    private String saveImage(MultipartFile imageFile) throws IOException {
-        String fileName = UUID.randomUUID().toString() + "_" + imageFile.getOriginalFilename();
-        Path filePath = Paths.get(uploadDir + fileName);
-        Files.copy(imageFile.getInputStream(), filePath);
-        return "/uploads/facilities/" + fileName;
+    private void finalizeImage(Long facilityId, String uploadToken, Path stagedImage, String originalFilename) {
+        uploadStorage.finalizeAsync(stagedImage, originalFilename)
+                .whenComplete((image, error) -> self.completeImageUpload(facilityId, uploadToken, image, error));
     }
     
     /**
-     * Delete image from local storage
+     * Mark the facility as waiting for a new upload; only a completion carrying this token will be applied
      */
-    private void deleteImage(String imageUrl) {
-        try {
-            if (imageUrl != null && imageUrl.startsWith("/api/uploads/")) {
-                // Remove /api prefix for file system path
-                String filePath = imageUrl.replace("/api", "");
-                Path path = Paths.get("." + filePath);
-                Files.deleteIfExists(path);
-            }
-        } catch (IOException e) {
-            // Log error but don't throw exception
-            System.err.println("Error deleting image: " + e.getMessage());
-        }
+    private static void startUpload(Facility facility) {
+        facility.setImageStatus(ImageStatus.PENDING);
+        facility.setImageUploadToken(UUID.randomUUID().toString());
+        facility.setImagePendingSince(LocalDateTime.now());
     }
     
     /**
      * Convert Entity to DTO
      */
     private FacilityDto convertToDto(Facility facility) {
-        return new FacilityDto(
+        FacilityDto dto = new FacilityDto(
             facility.getId(),
             facility.getName(),
             facility.getDescription(),
             facility.getImageUrl(),
             facility.getCreatedAt()
         );
+        dto.setImageStatus(facility.getImageStatus() != null ? facility.getImageStatus().name() : null);
+        dto.setSrcset(StoredImage.parseSrcset(facility.getImageSrcset()));
+        return dto;
     }
 }
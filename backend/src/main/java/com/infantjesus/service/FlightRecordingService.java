@@ -0,0 +1,163 @@
+package com.infantjesus.service;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Starts and stops one on-demand Java Flight Recorder recording on this instance. A recording is bounded
+ * by both a duration and a size, stops by itself when the duration runs out, and is written to a single
+ * file that the next recording replaces.
+ */
+@Service
+public class FlightRecordingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordingService.class);
+    
+    private static final String RECORDING_NAME = "admin-recording";
+    
+    @Value("${app.jfr.directory:${java.io.tmpdir}/jfr}")
+    private String directory;
+    
+    @Value("${app.jfr.max-duration:PT15M}")
+    private Duration maxDuration;
+    
+    @Value("${app.jfr.max-size-mb:100}")
+    private long maxSizeMb;
+    
+    // Not synchronized: stop() writes the file while holding this, which would pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private Recording recording;
+    private String settings;
+    private Path file;
+    private Instant startedAt;
+    
+    /**
+     * Start a recording with the JDK's "default" (low overhead) or "profile" settings
+     */
+    public Map<String, Object> start(String settings, Duration duration) {
+        if (!"default".equals(settings) && !"profile".equals(settings)) {
+            throw new RuntimeException("Settings must be 'default' or 'profile'");
+        }
+        Duration bounded = duration == null || duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0
+                ? maxDuration : duration;
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                throw new RuntimeException("A recording is already running");
+            }
+            closeRecording();
+            Path target = Paths.get(directory).resolve("recording.jfr");
+            Files.createDirectories(target.getParent());
+            Files.deleteIfExists(target);
+            
+            Recording started = new Recording(Configuration.getConfiguration(settings));
+            started.setName(RECORDING_NAME);
+            started.setToDisk(true);
+            started.setMaxSize(maxSizeMb * 1024 * 1024);
+            started.setDuration(bounded);
+            // Written on stop(), including the automatic stop when the duration runs out
+            started.setDestination(target);
+            started.start();
+            
+            recording = started;
+            this.settings = settings;
+            file = target;
+            startedAt = Instant.now();
+            logger.info("JFR recording started with '{}' settings for {}", settings, bounded);
+            return getStatus();
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException("Could not start recording: " + e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Stop the running recording and write it out for download
+     */
+    public Map<String, Object> stop() {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() != RecordingState.RUNNING) {
+                throw new RuntimeException("No recording is running");
+            }
+            recording.stop();
+            logger.info("JFR recording stopped, {} bytes written to {}", Files.size(file), file);
+            return getStatus();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write recording: " + e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * The last finished recording, or null if there is none yet
+     */
+    public Path getRecordingFile() {
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                return null;
+            }
+            return file != null && Files.isRegularFile(file) ? file : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public Map<String, Object> getStatus() {
+        lock.lock();
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            if (recording == null) {
+                status.put("state", "NONE");
+                return status;
+            }
+            status.put("state", recording.getState().name());
+            status.put("settings", settings);
+            status.put("startedAt", startedAt);
+            status.put("duration", recording.getDuration());
+            status.put("maxSizeBytes", recording.getMaxSize());
+            status.put("downloadable", recording.getState() != RecordingState.RUNNING && file != null && Files.isRegularFile(file));
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            closeRecording();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void closeRecording() {
+        if (recording != null) {
+            // Frees the recording's chunks in the JFR repository; the file written on stop() is kept
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.infantjesus.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Produces downscaled JPEG copies of an uploaded image for responsive srcset use
+ */
+@Service
+public class ImageDerivativeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+    
+    /** Target widths in pixels; sizes at or above the original width are skipped */
+    private static final int[] WIDTHS = {320, 640, 1280};
+    
+    private static final float JPEG_QUALITY = 0.82f;
+    
+    /** Larger sources are decoded subsampled so the decoded bitmap stays around this size (~32MB as RGB) */
+    private static final long MAX_DECODE_PIXELS = 8L * 1024 * 1024;
+    
+    @Value("${app.images.max-pixels:40000000}")
+    private long maxPixels;
+    
+    /**
+     * Reject an image whose header declares more than the configured number of pixels, before anything
+     * decodes it. Files ImageIO cannot read are let through; they are stored without derivatives.
+     */
+    public void checkDimensions(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = readerFor(input);
+            if (reader == null) {
+                return;
+            }
+            try {
+                checkPixels(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    /**
+     * Write resized copies next to the original as {name}_w{width}.jpg.
+     *
+     * @return width to file name of every derivative written, smallest first; empty if the file is not a readable image
+     */
+    public Map<Integer, String> generate(Path original) {
+        Map<Integer, String> derivatives = new LinkedHashMap<>();
+        int sourceWidth;
+        BufferedImage source;
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            ImageReader reader = readerFor(input);
+            if (reader == null) {
+                // Not a format ImageIO can decode (e.g. SVG or WebP); serve the original only
+                return derivatives;
+            }
+            try {
+                sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                long pixels = checkPixels(sourceWidth, sourceHeight);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = (int) Math.ceil(Math.sqrt((double) pixels / MAX_DECODE_PIXELS));
+                if (subsampling > 1) {
+                    // Only every nth pixel is decoded; still more than enough for the largest derivative
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not decode {} for resizing: {}", original, e.getMessage());
+            return derivatives;
+        }
+        
+        String baseName = stripExtension(original.getFileName().toString());
+        for (int width : WIDTHS) {
+            if (width >= sourceWidth) {
+                break;
+            }
+            String fileName = baseName + "_w" + width + ".jpg";
+            Path target = original.resolveSibling(fileName);
+            try {
+                if (!Files.exists(target)) {
+                    writeJpeg(resize(source, width), target);
+                }
+                derivatives.put(width, fileName);
+            } catch (IOException e) {
+                logger.warn("Could not write {}px derivative of {}: {}", width, original, e.getMessage());
+            }
+        }
+        return derivatives;
+    }
+    
+    /**
+     * Derivative files that currently exist for the given original
+     */
+    public List<Path> existing(Path original) {
+        String baseName = stripExtension(original.getFileName().toString());
+        List<Path> derivatives = new ArrayList<>();
+        for (int width : WIDTHS) {
+            Path derivative = original.resolveSibling(baseName + "_w" + width + ".jpg");
+            if (Files.exists(derivative)) {
+                derivatives.add(derivative);
+            }
+        }
+        return derivatives;
+    }
+    
+    private long checkPixels(int width, int height) throws IOException {
+        long pixels = (long) width * height;
+        if (pixels > maxPixels) {
+            throw new IOException("Image is " + width + "x" + height + " pixels, over the limit of " + maxPixels);
+        }
+        return pixels;
+    }
+    
+    private static ImageReader readerFor(ImageInputStream input) {
+        if (input == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(input, true, true);
+        return reader;
+    }
+    
+    private static BufferedImage resize(BufferedImage source, int width) {
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+        // JPEG has no alpha channel, so transparent areas are flattened onto white
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+    
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG writer available");
+        }
+        ImageWriter writer = writers.next();
+        // Write to a temp name first so a half-written file is never served
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(partial.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+    
+    private static String stripExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+}
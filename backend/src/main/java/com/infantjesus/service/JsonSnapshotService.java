@@ -0,0 +1,150 @@
+package com.infantjesus.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the public listings as already-encoded JSON (plain and gzip) so a read is a byte copy.
+ * Snapshots are rebuilt off the request thread whenever a collection changes; a request that
+ * still finds a stale snapshot rebuilds it inline.
+ */
+@Service
+public class JsonSnapshotService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JsonSnapshotService.class);
+    
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private EventService eventService;
+    
+    @Autowired
+    private FacilityService facilityService;
+    
+    @Autowired
+    private AnnouncementService announcementService;
+    
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    
+    /**
+     * Current snapshot of a collection, rebuilding it first if a write has happened since
+     */
+    public Snapshot get(String collection) {
+        Snapshot snapshot = snapshots.get(collection);
+        if (snapshot != null && snapshot.getVersion() == collectionVersions.current(collection)) {
+            return snapshot;
+        }
+        return rebuild(collection);
+    }
+    
+    /**
+     * Rebuild a snapshot in the background once the change to its collection has committed
+     */
+    @Async("taskExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        if (loader(event.getCollection()) == null) {
+            return;
+        }
+        try {
+            rebuild(event.getCollection());
+        } catch (RuntimeException e) {
+            // The next request rebuilds inline, so a failed background refresh only costs latency
+            logger.warn("Snapshot rebuild failed for {}: {}", event.getCollection(), e.getMessage());
+        }
+    }
+    
+    private Snapshot rebuild(String collection) {
+        Supplier<Object> loader = loader(collection);
+        if (loader == null) {
+            throw new IllegalArgumentException("No snapshot for collection: " + collection);
+        }
+        // Read the version before loading so the snapshot is never labelled newer than its data
+        long version = collectionVersions.current(collection);
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(loader.get());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + collection, e);
+        }
+        Snapshot built = new Snapshot(version, collectionVersions.etag(collection, version), json, gzip(json));
+        // Never replace a newer snapshot with an older one built concurrently
+        return snapshots.merge(collection, built,
+                (existing, candidate) -> candidate.getVersion() >= existing.getVersion() ? candidate : existing);
+    }
+    
+    private Supplier<Object> loader(String collection) {
+        switch (collection) {
+            case CollectionVersionService.EVENTS:
+                return eventService::getAllEvents;
+            case CollectionVersionService.FACILITIES:
+                return facilityService::getAllFacilities;
+            case CollectionVersionService.ANNOUNCEMENTS:
+                return announcementService::getActiveAnnouncements;
+            default:
+                return null;
+        }
+    }
+    
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Immutable encoded listing for one collection version
+     */
+    public static class Snapshot {
+        
+        private final long version;
+        private final String etag;
+        private final byte[] json;
+        private final byte[] gzip;
+        
+        public Snapshot(long version, String etag, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.etag = etag;
+            this.json = json;
+            this.gzip = gzip;
+        }
+        
+        public long getVersion() {
+            return version;
+        }
+        
+        public String getEtag() {
+            return etag;
+        }
+        
+        public byte[] getJson() {
+            return json;
+        }
+        
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.infantjesus.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process publish/subscribe bus behind the Server-Sent Events stream. Each update is serialized once
+ * and offered to every subscriber's bounded buffer; a small executor drains the buffers onto the
+ * connections, so a slow client never blocks a publisher or other clients. A client whose buffer fills
+ * up is disconnected and resumes from the replay window using Last-Event-ID when its browser reconnects.
+ */
+@Service
+public class LiveUpdateBus {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LiveUpdateBus.class);
+    
+    /** Tells a client that updates were missed and it should refetch the listings */
+    public static final String RESYNC = "resync";
+    
+    private static final Update HEARTBEAT = new Update(null, null, null);
+    
+    // Random per-process prefix so an event id from before a restart is never mistaken for a current one
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+    
+    private final AtomicLong sequence = new AtomicLong();
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    
+    // Guards recent and orders publishing against new subscriptions so a replay never duplicates;
+    // a ReentrantLock rather than a monitor so a contended virtual thread parks instead of pinning
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private final ArrayDeque<Update> recent = new ArrayDeque<>();
+    
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    @Qualifier("liveUpdateExecutor")
+    private Executor executor;
+    
+    @Value("${app.live.buffer-size:64}")
+    private int bufferSize;
+    
+    @Value("${app.live.replay-size:256}")
+    private int replaySize;
+    
+    @Value("${app.live.max-subscribers:5000}")
+    private int maxSubscribers;
+    
+    @Value("${app.live.stream-timeout:PT30M}")
+    private Duration streamTimeout;
+    
+    @Value("${app.live.reconnect-delay:PT5S}")
+    private Duration reconnectDelay;
+    
+    /**
+     * Open a stream; replays anything after lastEventId that is still in the replay window
+     *
+     * @return null when the subscriber limit has been reached
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        
+        lock.lock();
+        try {
+            subscribers.add(subscriber);
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<Update> missed = missedSince(lastEventId);
+                if (missed == null) {
+                    subscriber.buffer.offer(new Update(null, RESYNC, "{}"));
+                } else {
+                    // The buffer cannot hold everything missed; refetching is cheaper than a partial replay
+                    if (missed.size() > bufferSize) {
+                        missed = List.of(new Update(null, RESYNC, "{}"));
+                    }
+                    subscriber.buffer.addAll(missed);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        
+        try {
+            emitter.send(SseEmitter.event().reconnectTime(reconnectDelay.toMillis()).comment("connected"));
+        } catch (IOException e) {
+            remove(subscriber);
+            return emitter;
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+    
+    /**
+     * Fan an update out once the transaction that produced it has committed (or straight away outside one)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLiveUpdate(LiveUpdateEvent event) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event.getPayload());
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialize live update {}: {}", event.getType(), e.getMessage());
+            return;
+        }
+        
+        List<Subscriber> ready = new ArrayList<>(subscribers.size());
+        lock.lock();
+        try {
+            Update update = new Update(epoch + "-" + sequence.incrementAndGet(), event.getType(), json);
+            recent.addLast(update);
+            while (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.buffer.offer(update)) {
+                    ready.add(subscriber);
+                } else {
+                    dropped.incrementAndGet();
+                    ready.add(subscriber.overflow());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        published.incrementAndGet();
+        ready.forEach(this::schedule);
+    }
+    
+    /**
+     * Keep idle connections open through proxies and notice clients that have gone away
+     */
+    @Scheduled(fixedDelayString = "${app.live.heartbeat-interval:PT20S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            // A subscriber with pending data does not need a heartbeat
+            if (subscriber.buffer.isEmpty() && subscriber.buffer.offer(HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }
+    }
+    
+    /**
+     * Stream counters for monitoring
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("subscribers", subscribers.size());
+        metrics.put("maxSubscribers", maxSubscribers);
+        metrics.put("published", published.get());
+        metrics.put("droppedSlowSubscribers", dropped.get());
+        metrics.put("lastEventId", epoch + "-" + sequence.get());
+        return metrics;
+    }
+    
+    /**
+     * Updates after lastEventId, or null if that id is from another process or already out of the window
+     */
+    private List<Update> missedSince(String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+            return null;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long current = sequence.get();
+        long oldest = current - recent.size() + 1;
+        if (last > current || last < oldest - 1) {
+            return null;
+        }
+        List<Update> missed = new ArrayList<>();
+        long position = oldest;
+        for (Update update : recent) {
+            if (position > last) {
+                missed.add(update);
+            }
+            position++;
+        }
+        return missed;
+    }
+    
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.closed || !subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Left buffered; the next publish or heartbeat tries again
+            subscriber.draining.set(false);
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        try {
+            Update update;
+            while (!subscriber.closed && (update = subscriber.buffer.poll()) != null) {
+                if (update == Subscriber.OVERFLOW) {
+                    remove(subscriber);
+                    return;
+                }
+                send(subscriber, update);
+            }
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Something may have arrived between the last poll and clearing the flag
+        if (!subscriber.buffer.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+    
+    private void send(Subscriber subscriber, Update update) {
+        try {
+            if (update == HEARTBEAT) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                SseEmitter.SseEventBuilder event = SseEmitter.event().name(update.name).data(update.json, MediaType.APPLICATION_JSON);
+                if (update.id != null) {
+                    event.id(update.id);
+                }
+                subscriber.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client has gone away or the stream already ended
+            remove(subscriber);
+        }
+    }
+    
+    private void remove(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriber.closed = true;
+        subscriber.buffer.clear();
+        try {
+            subscriber.emitter.complete();
+        } catch (RuntimeException e) {
+            // Already completed by the container
+        }
+    }
+    
+    private static final class Update {
+        final String id;
+        final String name;
+        final String json;
+        
+        Update(String id, String name, String json) {
+            this.id = id;
+            this.name = name;
+            this.json = json;
+        }
+    }
+    
+    private static final class Subscriber {
+        // Queued in place of an update that did not fit; the drainer closes the stream when it reaches it
+        static final Update OVERFLOW = new Update(null, null, null);
+        
+        final SseEmitter emitter;
+        final BlockingQueue<Update> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+        
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+        }
+        
+        Subscriber overflow() {
+            buffer.clear();
+            buffer.offer(OVERFLOW);
+            return this;
+        }
+    }
+}
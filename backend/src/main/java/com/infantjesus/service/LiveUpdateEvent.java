@@ -0,0 +1,26 @@
+package com.infantjesus.service;
+
+/**
+ * A change pushed to live-update stream subscribers once the write that caused it has committed
+ */
+public class LiveUpdateEvent {
+    
+    public static final String CLASS_LIVE = "class-live";
+    public static final String ANNOUNCEMENT_CREATED = "announcement-created";
+    
+    private final String type;
+    private final Object payload;
+    
+    public LiveUpdateEvent(String type, Object payload) {
+        this.type = type;
+        this.payload = payload;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public Object getPayload() {
+        return payload;
+    }
+}
@@ -0,0 +1,277 @@
+package com.infantjesus.service;
+
+import com.infantjesus.entity.MailStatus;
+import com.infantjesus.entity.OutboundMail;
+import com.infantjesus.jfr.MailSendEvent;
+import com.infantjesus.repository.OutboundMailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Durable outbound mail queue. Messages are stored in outbound_mail and sent by a small worker pool;
+ * each worker claims a batch with FOR UPDATE SKIP LOCKED and sends it over a single SMTP connection.
+ * Failures are retried with exponential backoff until they are moved to the DEAD (dead-letter) state.
+ */
+@Service
+public class MailQueueService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MailQueueService.class);
+    
+    @Autowired
+    private OutboundMailRepository outboundMailRepository;
+    
+    @Autowired
+    private JavaMailSender mailSender;
+    
+    @Autowired
+    @Qualifier("mailExecutor")
+    private Executor mailExecutor;
+    
+    // Claiming must run through the proxy to get its own transaction
+    @Autowired
+    @Lazy
+    private MailQueueService self;
+    
+    @Value("${spring.mail.username}")
+    private String fromAddress;
+    
+    @Value("${app.mail.queue.workers:2}")
+    private int workers;
+    
+    @Value("${app.mail.queue.batch-size:20}")
+    private int batchSize;
+    
+    @Value("${app.mail.queue.max-attempts:6}")
+    private int maxAttempts;
+    
+    @Value("${app.mail.queue.initial-backoff:PT30S}")
+    private Duration initialBackoff;
+    
+    @Value("${app.mail.queue.max-backoff:PT1H}")
+    private Duration maxBackoff;
+    
+    // How long a claimed batch stays invisible to other workers before it is considered abandoned
+    @Value("${app.mail.queue.lease:PT5M}")
+    private Duration lease;
+    
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    
+    /**
+     * Store a message for delivery; returns as soon as the row is committed
+     */
+    public OutboundMail enqueue(String recipient, String replyTo, String subject, String body) {
+        OutboundMail mail = outboundMailRepository.save(new OutboundMail(recipient, replyTo, subject, body));
+        wakeWorkers();
+        return mail;
+    }
+    
+    /**
+     * Store many messages in the caller's transaction; call {@link #wakeWorkers()} once it has committed
+     */
+    public List<OutboundMail> enqueueAll(List<OutboundMail> mails) {
+        return outboundMailRepository.saveAll(mails);
+    }
+    
+    /**
+     * Delivery state of a broadcast's messages by status
+     */
+    public Map<String, Long> getBroadcastCounts(Long broadcastId) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (MailStatus status : MailStatus.values()) {
+            counts.put(status.name(), 0L);
+        }
+        for (Object[] row : outboundMailRepository.countByStatusForBroadcast(broadcastId)) {
+            counts.put(((MailStatus) row[0]).name(), (Long) row[1]);
+        }
+        return counts;
+    }
+    
+    /**
+     * Start workers up to the configured count; each drains batches until the queue has nothing due
+     */
+    @Scheduled(fixedDelayString = "${app.mail.queue.poll-interval:PT10S}")
+    public void wakeWorkers() {
+        while (true) {
+            int active = activeWorkers.get();
+            if (active >= workers) {
+                return;
+            }
+            if (!activeWorkers.compareAndSet(active, active + 1)) {
+                continue;
+            }
+            try {
+                mailExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                activeWorkers.decrementAndGet();
+                return;
+            }
+        }
+    }
+    
+    private void drain() {
+        try {
+            List<OutboundMail> batch;
+            while (!(batch = self.claimBatch()).isEmpty()) {
+                sendBatch(batch);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Mail worker stopped: {}", e.getMessage());
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+    }
+    
+    /**
+     * Lock a batch of due messages and mark them SENDING under a lease, in one short transaction
+     */
+    @Transactional
+    public List<OutboundMail> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboundMail> batch = outboundMailRepository.lockDue(now, batchSize);
+        for (OutboundMail mail : batch) {
+            mail.setStatus(MailStatus.SENDING);
+            mail.setNextAttemptAt(now.plus(lease));
+        }
+        return outboundMailRepository.saveAll(batch);
+    }
+    
+    /**
+     * Send a claimed batch over one SMTP connection and record each message's outcome
+     */
+    private void sendBatch(List<OutboundMail> batch) {
+        List<SimpleMailMessage> messages = new ArrayList<>(batch.size());
+        for (OutboundMail mail : batch) {
+            messages.add(toMessage(mail));
+        }
+        
+        Map<Object, Exception> failures = Map.of();
+        Exception batchFailure = null;
+        MailSendEvent event = new MailSendEvent();
+        event.begin();
+        try {
+            mailSender.send(messages.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            // Per-message failures; an empty map means the connection itself failed
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                batchFailure = e;
+            }
+        } catch (MailException e) {
+            batchFailure = e;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = MailSendEvent.SMTP;
+            event.messages = batch.size();
+            event.failed = batchFailure != null ? batch.size() : failures.size();
+            event.commit();
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboundMail mail = batch.get(i);
+            Exception failure = batchFailure != null ? batchFailure : failures.get(messages.get(i));
+            if (failure == null) {
+                mail.setStatus(MailStatus.SENT);
+                mail.setSentAt(now);
+                mail.setLastError(null);
+            } else {
+                recordFailure(mail, failure, now);
+            }
+        }
+        outboundMailRepository.saveAll(batch);
+    }
+    
+    private void recordFailure(OutboundMail mail, Exception failure, LocalDateTime now) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        mail.setLastError(failure.getMessage());
+        if (attempts >= maxAttempts) {
+            mail.setStatus(MailStatus.DEAD);
+            logger.warn("Mail {} to {} moved to dead letters after {} attempts: {}",
+                    mail.getId(), mail.getRecipient(), attempts, failure.getMessage());
+        } else {
+            mail.setStatus(MailStatus.PENDING);
+            mail.setNextAttemptAt(now.plus(backoff(attempts)));
+        }
+    }
+    
+    /**
+     * initial * 2^(attempts-1), capped, with up to 20% jitter so retries from one outage spread out
+     */
+    private Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        long jitter = ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+        return Duration.ofMillis(capped + jitter);
+    }
+    
+    private SimpleMailMessage toMessage(OutboundMail mail) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromAddress);
+        message.setTo(mail.getRecipient());
+        if (mail.getReplyTo() != null) {
+            message.setReplyTo(mail.getReplyTo());
+        }
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getBody());
+        return message;
+    }
+    
+    /**
+     * Dead-lettered messages, newest first
+     */
+    public List<OutboundMail> getDeadLetters(int limit) {
+        return outboundMailRepository.findByStatusOrderByIdDesc(MailStatus.DEAD, PageRequest.of(0, limit));
+    }
+    
+    /**
+     * Put a dead-lettered message back in the queue with a fresh attempt budget
+     */
+    public Optional<OutboundMail> retry(Long id) {
+        Optional<OutboundMail> found = outboundMailRepository.findById(id)
+                .filter(mail -> mail.getStatus() == MailStatus.DEAD);
+        found.ifPresent(mail -> {
+            mail.setStatus(MailStatus.PENDING);
+            mail.setAttempts(0);
+            mail.setNextAttemptAt(LocalDateTime.now());
+            outboundMailRepository.save(mail);
+            wakeWorkers();
+        });
+        return found;
+    }
+    
+    /**
+     * Message counts by status
+     */
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (MailStatus status : MailStatus.values()) {
+            counts.put(status.name(), outboundMailRepository.countByStatus(status));
+        }
+        return counts;
+    }
+}
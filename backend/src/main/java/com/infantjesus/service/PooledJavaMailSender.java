@@ -0,0 +1,87 @@
+package com.infantjesus.service;
+
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JavaMailSenderImpl that sends over connections borrowed from an {@link SmtpTransportPool}
+ * instead of connecting and disconnecting on every send call
+ */
+public class PooledJavaMailSender extends JavaMailSenderImpl {
+    
+    private SmtpTransportPool pool;
+    
+    public SmtpTransportPool getPool() {
+        return pool;
+    }
+    
+    public void setPool(SmtpTransportPool pool) {
+        this.pool = pool;
+    }
+    
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        SmtpTransportPool.PooledTransport transport = null;
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                // After a failed send the connection goes back through the pool, which NOOP-checks or replaces it
+                if (transport == null || transport.isExhausted() || transport.isSuspect()) {
+                    if (transport != null) {
+                        pool.release(transport);
+                        transport = null;
+                    }
+                    try {
+                        transport = pool.borrow();
+                    } catch (AuthenticationFailedException e) {
+                        throw new MailAuthenticationException(e);
+                    } catch (MessagingException e) {
+                        // No connection: every message not yet sent has failed
+                        for (int j = i; j < mimeMessages.length; j++) {
+                            failedMessages.put(original(mimeMessages, originalMessages, j), e);
+                        }
+                        throw new MailSendException("Mail server connection failed", e, failedMessages);
+                    }
+                }
+                
+                MimeMessage mimeMessage = mimeMessages[i];
+                try {
+                    if (mimeMessage.getSentDate() == null) {
+                        mimeMessage.setSentDate(new Date());
+                    }
+                    String messageId = mimeMessage.getMessageID();
+                    mimeMessage.saveChanges();
+                    if (messageId != null) {
+                        // Preserve an explicitly specified message id
+                        mimeMessage.setHeader("Message-ID", messageId);
+                    }
+                    Address[] recipients = mimeMessage.getAllRecipients();
+                    transport.send(mimeMessage, recipients != null ? recipients : new Address[0]);
+                } catch (MessagingException | RuntimeException e) {
+                    failedMessages.put(original(mimeMessages, originalMessages, i), e);
+                }
+            }
+        } finally {
+            if (transport != null) {
+                pool.release(transport);
+            }
+        }
+        
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+    
+    private static Object original(MimeMessage[] mimeMessages, Object[] originalMessages, int index) {
+        return originalMessages != null ? originalMessages[index] : mimeMessages[index];
+    }
+}
@@ -0,0 +1,239 @@
+package com.infantjesus.service;
+
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps up to maxSize authenticated SMTP connections open for reuse, so a batch of mail costs one
+ * TLS handshake and login instead of one per send. A connection is checked with NOOP before reuse once
+ * it has been idle for a while or after a failed send, retired after maxMessages messages, and closed
+ * by {@link #evictIdle()} once idle longer than idleTimeout.
+ */
+public class SmtpTransportPool implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SmtpTransportPool.class);
+    
+    private final Session session;
+    private final String protocol;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    
+    private final int maxSize;
+    private final int maxMessages;
+    private final long idleTimeoutNanos;
+    private final long validateAfterNanos;
+    private final long borrowTimeoutNanos;
+    
+    /** Most recently used first, so the warmest connection is reused and old ones age out at the tail */
+    private final LinkedBlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private volatile boolean closed;
+    
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    
+    public SmtpTransportPool(Session session, String protocol, String host, int port, String username, String password,
+                             int maxSize, int maxMessages, Duration idleTimeout, Duration validateAfter, Duration borrowTimeout) {
+        this.session = session;
+        // Same fallback as JavaMailSenderImpl when no protocol is configured
+        String sessionProtocol = session.getProperty("mail.transport.protocol");
+        this.protocol = protocol != null ? protocol : (sessionProtocol != null ? sessionProtocol : "smtp");
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.maxMessages = maxMessages;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.validateAfterNanos = validateAfter.toNanos();
+        this.borrowTimeoutNanos = borrowTimeout.toNanos();
+        this.permits = new Semaphore(maxSize, true);
+    }
+    
+    /**
+     * Take a connected transport, reusing an idle one when it is still healthy.
+     * Must be followed by {@link #release(PooledTransport)}.
+     */
+    public PooledTransport borrow() throws MessagingException {
+        if (closed) {
+            throw new MessagingException("SMTP transport pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new MessagingException("Timed out waiting for an SMTP connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for an SMTP connection", e);
+        }
+        
+        try {
+            PooledTransport pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isHealthy(pooled)) {
+                    borrowed.incrementAndGet();
+                    reused.incrementAndGet();
+                    return pooled;
+                }
+                validationFailures.incrementAndGet();
+                destroy(pooled);
+            }
+            pooled = connect();
+            borrowed.incrementAndGet();
+            return pooled;
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Return a transport; it is closed instead if it has sent its quota or the pool is closed.
+     * A transport whose last send failed is kept but checked with NOOP on its next borrow.
+     */
+    public void release(PooledTransport pooled) {
+        try {
+            if (closed || pooled.isExhausted()) {
+                destroy(pooled);
+            } else {
+                pooled.lastUsedNanos = System.nanoTime();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+    
+    /**
+     * Close connections that have been idle longer than the idle timeout
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        Iterator<PooledTransport> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext()) {
+            PooledTransport pooled = oldestFirst.next();
+            if (now - pooled.lastUsedNanos > idleTimeoutNanos && idle.removeLastOccurrence(pooled)) {
+                destroy(pooled);
+            }
+        }
+    }
+    
+    /**
+     * Counters and current sizes for the admin metrics endpoint
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("maxSize", maxSize);
+        metrics.put("idle", idle.size());
+        metrics.put("inUse", maxSize - permits.availablePermits());
+        metrics.put("created", created.get());
+        metrics.put("destroyed", destroyed.get());
+        metrics.put("borrowed", borrowed.get());
+        metrics.put("reused", reused.get());
+        metrics.put("validationFailures", validationFailures.get());
+        metrics.put("borrowTimeouts", borrowTimeouts.get());
+        metrics.put("messagesSent", messagesSent.get());
+        metrics.put("sendFailures", sendFailures.get());
+        return metrics;
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+    
+    private boolean isHealthy(PooledTransport pooled) {
+        if (!pooled.suspect && System.nanoTime() - pooled.lastUsedNanos < validateAfterNanos) {
+            return true;
+        }
+        // SMTPTransport.isConnected() sends NOOP and reports whether the server answered
+        boolean healthy = pooled.transport.isConnected();
+        pooled.suspect = false;
+        return healthy;
+    }
+    
+    private PooledTransport connect() throws MessagingException {
+        Transport transport = session.getTransport(protocol);
+        transport.connect(host, port, username, password);
+        created.incrementAndGet();
+        return new PooledTransport(transport);
+    }
+    
+    private void destroy(PooledTransport pooled) {
+        destroyed.incrementAndGet();
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * A pooled SMTP connection with its usage counters
+     */
+    public final class PooledTransport {
+        private final Transport transport;
+        private int messages;
+        private long lastUsedNanos = System.nanoTime();
+        private boolean suspect;
+        
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+        
+        /**
+         * Send one message; a failure marks the connection for a NOOP check before its next use
+         */
+        public void send(MimeMessage message, Address[] recipients) throws MessagingException {
+            try {
+                transport.sendMessage(message, recipients);
+                messages++;
+                messagesSent.incrementAndGet();
+            } catch (MessagingException | RuntimeException e) {
+                suspect = true;
+                sendFailures.incrementAndGet();
+                throw e;
+            }
+        }
+        
+        /**
+         * Whether the last send on this connection failed, so it should be validated before sending again
+         */
+        public boolean isSuspect() {
+            return suspect;
+        }
+        
+        /**
+         * Whether this connection has sent its quota and should be swapped for a fresh one
+         */
+        public boolean isExhausted() {
+            return messages >= maxMessages;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.infantjesus.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A finalized upload: the original's public URL plus its resized derivatives by width
+ */
+public class StoredImage {
+    
+    private final String url;
+    private final Map<Integer, String> derivatives;
+    
+    public StoredImage(String url, Map<Integer, String> derivatives) {
+        this.url = url;
+        this.derivatives = Collections.unmodifiableMap(new LinkedHashMap<>(derivatives));
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public Map<Integer, String> getDerivatives() {
+        return derivatives;
+    }
+    
+    /**
+     * Derivatives in HTML srcset syntax ("/a_w320.jpg 320w, /a_w640.jpg 640w"), or null if there are none
+     */
+    public String toSrcset() {
+        if (derivatives.isEmpty()) {
+            return null;
+        }
+        StringBuilder srcset = new StringBuilder();
+        derivatives.forEach((width, derivativeUrl) -> {
+            if (srcset.length() > 0) {
+                srcset.append(", ");
+            }
+            srcset.append(derivativeUrl).append(' ').append(width).append('w');
+        });
+        return srcset.toString();
+    }
+    
+    /**
+     * Parse a srcset string written by {@link #toSrcset()} back into width to URL
+     */
+    public static Map<Integer, String> parseSrcset(String srcset) {
+        Map<Integer, String> derivatives = new LinkedHashMap<>();
+        if (srcset == null || srcset.isBlank()) {
+            return derivatives;
+        }
+        for (String candidate : srcset.split(",")) {
+            String[] parts = candidate.trim().split(" ");
+            if (parts.length == 2 && parts[1].endsWith("w")) {
+                try {
+                    derivatives.put(Integer.parseInt(parts[1].substring(0, parts[1].length() - 1)), parts[0]);
+                } catch (NumberFormatException e) {
+                    // Skip a malformed candidate rather than drop the whole set
+                }
+            }
+        }
+        return derivatives;
+    }
+}
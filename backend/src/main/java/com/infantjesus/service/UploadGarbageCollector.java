@@ -0,0 +1,105 @@
+package com.infantjesus.service;
+
+import com.infantjesus.repository.EventRepository;
+import com.infantjesus.repository.FacilityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reference counting for uploaded images. A blob is live while any event or facility row points at it;
+ * unreferenced blobs are removed eagerly on release and by a periodic background sweep.
+ */
+@Service
+public class UploadGarbageCollector {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UploadGarbageCollector.class);
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private FacilityRepository facilityRepository;
+    
+    @Autowired
+    private UploadStorageService uploadStorage;
+    
+    // Time a freshly stored blob may stay unreferenced while its owning row is being updated
+    @Value("${app.uploads.gc-grace:PT1H}")
+    private Duration grace;
+    
+    /**
+     * Number of rows pointing at an uploaded image
+     */
+    public long referenceCount(String url) {
+        return eventRepository.countByImageUrl(url) + facilityRepository.countByImageUrl(url);
+    }
+    
+    /**
+     * Drop a reference to an image; call after the row no longer points at it. Inside a transaction the
+     * blob is only considered once it commits, so a rollback never leaves a row pointing at a deleted file.
+     */
+    public void release(String url) {
+        if (url == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteIfUnreferenced(url);
+                }
+            });
+        } else {
+            deleteIfUnreferenced(url);
+        }
+    }
+    
+    private void deleteIfUnreferenced(String url) {
+        if (uploadStorage.deleteIfUnreferenced(url, grace, this::isReferenced)) {
+            logger.debug("Deleted unreferenced upload {}", url);
+        }
+    }
+    
+    /**
+     * Remove blobs that no row references and that are older than the grace period
+     */
+    @Scheduled(fixedDelayString = "${app.uploads.gc-interval:PT6H}", initialDelayString = "${app.uploads.gc-initial-delay:PT10M}")
+    public void sweep() {
+        List<String> blobUrls;
+        try {
+            blobUrls = uploadStorage.listBlobUrls();
+        } catch (IOException e) {
+            logger.warn("Upload sweep could not list blobs: {}", e.getMessage());
+            return;
+        }
+        
+        Set<String> referenced = new HashSet<>(eventRepository.findReferencedImageUrls());
+        referenced.addAll(facilityRepository.findReferencedImageUrls());
+        
+        int deleted = 0;
+        for (String url : blobUrls) {
+            // The snapshot filters most blobs cheaply; the live count under the blob lock makes the final call
+            if (!referenced.contains(url) && uploadStorage.deleteIfUnreferenced(url, grace, this::isReferenced)) {
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            logger.info("Upload sweep removed {} orphaned blob(s) of {}", deleted, blobUrls.size());
+        }
+    }
+    
+    private boolean isReferenced(String url) {
+        return referenceCount(url) > 0;
+    }
+}
@@ -0,0 +1,360 @@
+package com.infantjesus.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Two-step image upload: the request thread only stages the multipart body into a temp file,
+ * and the fileUploadExecutor hashes it into the content-addressed blob store and renders its
+ * resized derivatives afterwards. Identical uploads share one blob.
+ */
+@Service
+public class UploadStorageService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UploadStorageService.class);
+    
+    private static final String URL_PREFIX = "/uploads/";
+    
+    /** Original blobs are named {sha256}.{ext}; derivatives carry a _w{width} suffix and do not match */
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{1,5}");
+    
+    private final Path uploadRoot = Paths.get("uploads").toAbsolutePath().normalize();
+    private final Path stagingDir = uploadRoot.resolve("tmp");
+    
+    /** Content-addressed store: uploads/blobs/{first two hex digits}/{sha256}.{ext} */
+    private final Path blobRoot = uploadRoot.resolve("blobs");
+    
+    /**
+     * Alternate encodings stored next to a file as {file}{suffix}, in the order they are preferred when served.
+     * .gz copies are written here for compressible uploads; .avif/.webp copies are served when present.
+     */
+    public static final List<String> VARIANT_SUFFIXES = List.of(".avif", ".webp", ".gz");
+    
+    /** Upload types that are not already compressed and get a .gz variant */
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = Set.of(".svg", ".txt", ".json");
+    
+    /** Content hashes of files whose name does not carry one, keyed by path, size and modification time */
+    private final Cache<String, String> contentHashes = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+    
+    /** Striped by hash so storing a blob and deleting it never interleave */
+    private final ReentrantLock[] locks = new ReentrantLock[64];
+    
+    @Autowired
+    @Qualifier("fileUploadExecutor")
+    private Executor fileUploadExecutor;
+    
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+    
+    public UploadStorageService() {
+        try {
+            Files.createDirectories(stagingDir);
+            Files.createDirectories(blobRoot);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create upload directories", e);
+        }
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+    
+    /**
+     * Copy the multipart body into a private temp file before the request ends.
+     * Large parts are already spooled to disk by the container, so this is usually a rename.
+     */
+    public Path stage(MultipartFile imageFile) throws IOException {
+        Path staged = Files.createTempFile(stagingDir, "upload-", ".part");
+        try {
+            imageFile.transferTo(staged.toAbsolutePath().toFile());
+            return staged;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+    }
+    
+    /**
+     * Move a staged upload into the blob store and generate its derivatives on the fileUploadExecutor
+     */
+    public CompletableFuture<StoredImage> finalizeAsync(Path staged, String originalFilename) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return store(staged, originalFilename);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    discard(staged);
+                }
+            }, fileUploadExecutor);
+        } catch (RejectedExecutionException e) {
+            // Upload executor is saturated; fail this image rather than block the request thread
+            discard(staged);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Delete a staged upload that will not be finalized
+     */
+    public void discard(Path staged) {
+        try {
+            Files.deleteIfExists(staged);
+        } catch (IOException e) {
+            logger.warn("Could not delete staged upload {}: {}", staged, e.getMessage());
+        }
+    }
+    
+    /**
+     * Delete an uploaded image and its derivatives if nothing references it any more.
+     * Blobs younger than the grace period are kept, since a deduplicated upload may be about to attach to them;
+     * pre-blob uploads had a single owner and are deleted straight away.
+     *
+     * @return true if the file was deleted
+     */
+    public boolean deleteIfUnreferenced(String url, Duration grace, Predicate<String> referenced) {
+        Path original = resolve(url);
+        if (original == null) {
+            return false;
+        }
+        String fileName = original.getFileName().toString();
+        boolean blob = original.startsWith(blobRoot);
+        if (blob && !BLOB_NAME.matcher(fileName).matches()) {
+            // Derivatives go with their original, never on their own
+            return false;
+        }
+        ReentrantLock lock = blob ? lockFor(fileName.substring(0, 64)) : null;
+        if (lock != null) {
+            lock.lock();
+        }
+        try {
+            if (!Files.isRegularFile(original)) {
+                return false;
+            }
+            if (blob && Files.getLastModifiedTime(original).toInstant().isAfter(Instant.now().minus(grace))) {
+                return false;
+            }
+            if (referenced.test(url)) {
+                return false;
+            }
+            for (Path derivative : imageDerivativeService.existing(original)) {
+                deleteWithVariants(derivative);
+            }
+            return deleteWithVariants(original);
+        } catch (IOException e) {
+            logger.warn("Could not delete upload {}: {}", url, e.getMessage());
+            return false;
+        } finally {
+            if (lock != null) {
+                lock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * The stored file behind a public /uploads/... URL, or null if there is none
+     */
+    public Path locate(String url) {
+        Path path = resolve(url);
+        if (path == null || path.getFileName().toString().endsWith(".part") || !Files.isRegularFile(path)) {
+            return null;
+        }
+        return path;
+    }
+    
+    /**
+     * SHA-256 of a stored file's bytes. Original blobs carry it in their name; anything else is hashed once
+     * per size and modification time.
+     */
+    public String contentHash(Path file, BasicFileAttributes attributes) throws IOException {
+        String name = file.getFileName().toString();
+        if (BLOB_NAME.matcher(name).matches()) {
+            return name.substring(0, 64);
+        }
+        String key = file + "|" + attributes.size() + "|" + attributes.lastModifiedTime().toMillis();
+        String hash = contentHashes.getIfPresent(key);
+        if (hash == null) {
+            hash = sha256(file);
+            contentHashes.put(key, hash);
+        }
+        return hash;
+    }
+    
+    /**
+     * Public URLs of every original blob in the store (derivatives excluded)
+     */
+    public List<String> listBlobUrls() throws IOException {
+        try (Stream<Path> files = Files.walk(blobRoot, 2)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(path -> BLOB_NAME.matcher(path.getFileName().toString()).matches())
+                    .map(this::toUrl)
+                    .collect(Collectors.toList());
+        }
+    }
+    
+    private StoredImage store(Path staged, String originalFilename) throws IOException {
+        // Fails the upload (image status FAILED) before an oversized image reaches the store
+        imageDerivativeService.checkDimensions(staged);
+        String hash = sha256(staged);
+        Path shardDir = blobRoot.resolve(hash.substring(0, 2));
+        Files.createDirectories(shardDir);
+        
+        Path target;
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            target = findBlob(shardDir, hash);
+            if (target != null) {
+                // Same bytes already stored; refresh the timestamp so the collector grants a new grace period
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            } else {
+                target = shardDir.resolve(hash + extension(originalFilename));
+                Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING);
+                if (COMPRESSIBLE_EXTENSIONS.contains(extension(originalFilename))) {
+                    writeGzipVariant(target);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        
+        // Existing derivatives are reused, so a deduplicated upload costs only the hash
+        String urlPrefix = toUrl(shardDir) + "/";
+        Map<Integer, String> derivatives = new LinkedHashMap<>();
+        imageDerivativeService.generate(target).forEach((width, derivative) -> derivatives.put(width, urlPrefix + derivative));
+        return new StoredImage(toUrl(target), derivatives);
+    }
+    
+    /**
+     * Precompress a file to {file}.gz so it can be served without compressing per request
+     */
+    private static void writeGzipVariant(Path file) throws IOException {
+        Path variant = file.resolveSibling(file.getFileName() + ".gz");
+        Path partial = variant.resolveSibling(variant.getFileName() + ".part");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+                Files.copy(file, out);
+            }
+            Files.move(partial, variant, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+    
+    private static boolean deleteWithVariants(Path file) throws IOException {
+        for (String suffix : VARIANT_SUFFIXES) {
+            Files.deleteIfExists(file.resolveSibling(file.getFileName() + suffix));
+        }
+        return Files.deleteIfExists(file);
+    }
+    
+    private static Path findBlob(Path shardDir, String hash) throws IOException {
+        try (Stream<Path> files = Files.list(shardDir)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(hash) && BLOB_NAME.matcher(name).matches();
+                    })
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+    
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private ReentrantLock lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), locks.length)];
+    }
+    
+    /**
+     * Map a public /uploads/... URL back to its file, or null if it points outside the upload root
+     */
+    private Path resolve(String url) {
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        Path path = uploadRoot.resolve(url.substring(URL_PREFIX.length())).normalize();
+        if (!path.startsWith(uploadRoot) || path.startsWith(stagingDir)) {
+            return null;
+        }
+        return path;
+    }
+    
+    private String toUrl(Path path) {
+        StringBuilder url = new StringBuilder(URL_PREFIX.substring(0, URL_PREFIX.length() - 1));
+        for (Path part : uploadRoot.relativize(path)) {
+            url.append('/').append(part);
+        }
+        return url.toString();
+    }
+    
+    private static String extension(String originalFilename) {
+        String name = sanitize(originalFilename);
+        int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            return ".bin";
+        }
+        String extension = name.substring(dot).toLowerCase(Locale.ROOT);
+        return extension.matches("\\.[a-z0-9]{1,5}") ? extension : ".bin";
+    }
+    
+    private static String sanitize(String originalFilename) {
+        if (originalFilename == null || originalFilename.isBlank()) {
+            return "image";
+        }
+        // Drop any client-supplied directory part and characters that are unsafe in a URL path
+        String name = originalFilename.substring(Math.max(originalFilename.lastIndexOf('/'), originalFilename.lastIndexOf('\\')) + 1);
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}